@@ -1,5 +1,6 @@
 plugins {
     id("java")
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "org.wiles.scheduler"
@@ -24,3 +25,13 @@ dependencies {
 tasks.test {
     useJUnitPlatform()
 }
+
+jmh {
+    jmhVersion.set("1.37")
+    warmupIterations.set(2)
+    iterations.set(3)
+    fork.set(1)
+    // allocation rate per operation alongside the timings
+    profilers.set(listOf("gc"))
+    resultFormat.set("JSON")
+}
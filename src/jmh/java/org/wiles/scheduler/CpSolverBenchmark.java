@@ -0,0 +1,50 @@
+package org.wiles.scheduler;
+
+import com.google.ortools.Loader;
+import com.google.ortools.sat.CpSolver;
+import com.google.ortools.sat.CpSolverStatus;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the CP-SAT search alone: {@code CpSolver.solve(table.getModel())} on a model that has already been built.
+ * Large rosters rarely prove optimality, so every search is capped at {@code maxSeconds}.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+public class CpSolverBenchmark {
+
+    static {
+        Loader.loadNativeLibraries();
+    }
+
+    @Param({"4", "20", "50", "100", "200"})
+    int interns;
+
+    @Param({"7", "31", "90", "365"})
+    int days;
+
+    @Param({"0.0", "0.1", "0.3"})
+    double density;
+
+    @Param({"10"})
+    double maxSeconds;
+
+    private Table table;
+    private CpSolver solver;
+
+    @Setup(Level.Invocation)
+    public void buildModel() {
+        table = RosterFixture.table(interns, days, density, 42);
+        solver = new SchedulerSolver(table).solve();
+        solver.getParameters().setMaxTimeInSeconds(maxSeconds);
+    }
+
+    @Benchmark
+    public CpSolverStatus search(ModelSize size) {
+        size.record(table);
+        return solver.solve(table.getModel());
+    }
+}
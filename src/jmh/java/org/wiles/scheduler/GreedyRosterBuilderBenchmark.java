@@ -0,0 +1,42 @@
+package org.wiles.scheduler;
+
+import com.google.ortools.Loader;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one greedy pass of {@link GreedyRosterBuilder}. The builder only reads the table, so one table per trial will
+ * do.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class GreedyRosterBuilderBenchmark {
+
+    static {
+        Loader.loadNativeLibraries();
+    }
+
+    @Param({"4", "20", "50", "100", "200"})
+    int interns;
+
+    @Param({"7", "31", "90", "365"})
+    int days;
+
+    @Param({"0.0", "0.1", "0.3"})
+    double density;
+
+    private GreedyRosterBuilder builder;
+    private long seed;
+
+    @Setup(Level.Trial)
+    public void newTable() {
+        builder = new GreedyRosterBuilder(RosterFixture.table(interns, days, density, 42));
+    }
+
+    @Benchmark
+    public GreedyRosterBuilder.Result build() {
+        return builder.build(seed++);
+    }
+}
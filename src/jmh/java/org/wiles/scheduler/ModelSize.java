@@ -0,0 +1,31 @@
+package org.wiles.scheduler;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Reports the size of the model a benchmark produced next to its timings. The counters hold the size of the last
+ * model seen rather than a running total, so they read the same whatever the iteration length.
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.EVENTS)
+public class ModelSize {
+
+    public long variables;
+    public long constraints;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+        variables = 0;
+        constraints = 0;
+    }
+
+    void record(Table table) {
+        var proto = table.getModel().getBuilder();
+        variables = proto.getVariablesCount();
+        constraints = proto.getConstraintsCount();
+    }
+}
@@ -0,0 +1,45 @@
+package org.wiles.scheduler;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * Builds the rosters the benchmarks run against. Day 0 is Monday 1 July 2024, the same month the tests use, and
+ * leave and requests are scattered with a fixed seed so every run sees the same roster.
+ */
+final class RosterFixture {
+
+    private static final LocalDate START = LocalDate.of(2024, 7, 1);
+
+    private RosterFixture() {
+    }
+
+    static List<String> interns(int count) {
+        return IntStream.range(0, count).mapToObj(i -> "intern-" + i).toList();
+    }
+
+    /**
+     * @param density fraction of intern days that carry either leave or an off request (split evenly between the two)
+     */
+    static Table table(int interns, int days, double density, long seed) {
+        Table table = new Table(interns(interns), RosterCalendar.of(START, days));
+        Random random = new Random(seed);
+        for (int i = 0; i < interns; i++) {
+            IntStream.Builder leave = IntStream.builder();
+            IntStream.Builder requests = IntStream.builder();
+            for (int d = 0; d < days; d++) {
+                double r = random.nextDouble();
+                if (r < density / 2) {
+                    leave.add(d);
+                } else if (r < density) {
+                    requests.add(d);
+                }
+            }
+            table.addLeaveDays(i, leave.build().toArray());
+            table.addRequests(i, requests.build().toArray());
+        }
+        return table;
+    }
+}
@@ -0,0 +1,48 @@
+package org.wiles.scheduler;
+
+import com.google.ortools.Loader;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of checking and scoring one roster with {@link RosterValidator}, against a greedy roster of the same table.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class RosterValidatorBenchmark {
+
+    static {
+        Loader.loadNativeLibraries();
+    }
+
+    @Param({"4", "20", "50", "100", "200"})
+    int interns;
+
+    @Param({"7", "31", "90", "365"})
+    int days;
+
+    @Param({"0.0", "0.1", "0.3"})
+    double density;
+
+    private RosterValidator validator;
+    private Roster roster;
+
+    @Setup(Level.Trial)
+    public void newRoster() {
+        Table table = RosterFixture.table(interns, days, density, 42);
+        validator = new RosterValidator(table);
+        roster = new GreedyRosterBuilder(table).build(42).roster();
+    }
+
+    @Benchmark
+    public RosterValidator.Result validate() {
+        return validator.validate(roster);
+    }
+
+    @Benchmark
+    public boolean isValid() {
+        return validator.isValid(roster);
+    }
+}
@@ -0,0 +1,44 @@
+package org.wiles.scheduler;
+
+import com.google.ortools.Loader;
+import com.google.ortools.sat.CpSolver;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of {@link SchedulerSolver#solve()}, i.e. emitting the constraints into an already built {@link Table}.
+ * {@code solve()} mutates the model, so every invocation gets a fresh table.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+public class SchedulerSolverBenchmark {
+
+    static {
+        Loader.loadNativeLibraries();
+    }
+
+    @Param({"4", "20", "50", "100", "200"})
+    int interns;
+
+    @Param({"7", "31", "90", "365"})
+    int days;
+
+    @Param({"0.0", "0.1", "0.3"})
+    double density;
+
+    private Table table;
+
+    @Setup(Level.Invocation)
+    public void newTable() {
+        table = RosterFixture.table(interns, days, density, 42);
+    }
+
+    @Benchmark
+    public CpSolver buildModel(ModelSize size) {
+        CpSolver solver = new SchedulerSolver(table).solve();
+        size.record(table);
+        return solver;
+    }
+}
@@ -0,0 +1,60 @@
+package org.wiles.scheduler;
+
+import com.google.ortools.Loader;
+import org.openjdk.jmh.annotations.*;
+import org.wiles.scheduler.Table.Shift;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of checking one giveaway and of ranking every intern for a shift with {@link SwapEngine}, against a greedy
+ * roster of the same table.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class SwapEngineBenchmark {
+
+    static {
+        Loader.loadNativeLibraries();
+    }
+
+    @Param({"4", "20", "50", "100", "200"})
+    int interns;
+
+    @Param({"7", "31", "90", "365"})
+    int days;
+
+    @Param({"0.0", "0.1", "0.3"})
+    double density;
+
+    private SwapEngine engine;
+    private int day;
+    private int from;
+    private int to;
+
+    @Setup(Level.Trial)
+    public void newEngine() {
+        Table table = RosterFixture.table(interns, days, density, 42);
+        Roster roster = new GreedyRosterBuilder(table).build(42).roster();
+        engine = new SwapEngine(table, roster);
+        // a day the week day shift runs, so the check goes past who works it
+        day = days / 2;
+        while (day > 0 && !table.runs(day, Shift.WEEK_DAY.ordinal())) {
+            day--;
+        }
+        from = roster.assignee(day, Shift.WEEK_DAY.ordinal());
+        to = (from + 1) % interns;
+    }
+
+    @Benchmark
+    public SwapEngine.Verdict checkGiveaway() {
+        return engine.checkGiveaway(day, Shift.WEEK_DAY.ordinal(), from, to);
+    }
+
+    @Benchmark
+    public List<SwapEngine.Candidate> candidates() {
+        return engine.candidates(day, Shift.WEEK_DAY.ordinal());
+    }
+}
@@ -0,0 +1,35 @@
+package org.wiles.scheduler;
+
+import com.google.ortools.Loader;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of {@code new Table(...)} including the leave and request bookkeeping, before any constraint is added.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class TableBenchmark {
+
+    static {
+        Loader.loadNativeLibraries();
+    }
+
+    @Param({"4", "20", "50", "100", "200"})
+    int interns;
+
+    @Param({"7", "31", "90", "365"})
+    int days;
+
+    @Param({"0.0", "0.1", "0.3"})
+    double density;
+
+    @Benchmark
+    public Table newTable(ModelSize size) {
+        Table table = RosterFixture.table(interns, days, density, 42);
+        size.record(table);
+        return table;
+    }
+}
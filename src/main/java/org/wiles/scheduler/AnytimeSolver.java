@@ -0,0 +1,140 @@
+package org.wiles.scheduler;
+
+import com.google.ortools.sat.CpSolver;
+import com.google.ortools.sat.CpSolverSolutionCallback;
+import com.google.ortools.sat.CpSolverStatus;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Solves a table in the background and publishes every improving roster as it is found, so that a usable draft is
+ * available long before optimality is proven. The search ends at the first of: the {@link StopPolicy} saying so,
+ * {@link #stop()}, a limit of the {@link SolverOptions}, or a proof of optimality.
+ * <p>
+ * Subscribers that fall behind miss intermediate rosters rather than slowing down the search; every roster is
+ * better than the one before it, so the latest one is the one that matters.
+ * <p>
+ * A solver runs one search: its publisher is closed when the search ends, so {@link #start()} may only be called
+ * once.
+ */
+public class AnytimeSolver implements Flow.Publisher<RosterSnapshot> {
+
+    static final long TICK_MILLIS = 100;
+
+    private final Table table;
+    private final SolverOptions options;
+    private final StopPolicy stopPolicy;
+    private final SubmissionPublisher<RosterSnapshot> publisher = new SubmissionPublisher<>();
+    private volatile CpSolver solver;
+    private volatile RosterSnapshot best;
+    private volatile long improvedAt;
+    private volatile boolean stoppedByPolicy;
+    private volatile boolean stopped;
+    private final AtomicBoolean started = new AtomicBoolean();
+
+    public AnytimeSolver(Table table, SolverOptions options, StopPolicy stopPolicy) {
+        this.table = table;
+        this.options = options;
+        this.stopPolicy = stopPolicy;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super RosterSnapshot> subscriber) {
+        publisher.subscribe(subscriber);
+    }
+
+    /**
+     * Convenience listener; the returned future completes when the search has ended.
+     */
+    public CompletableFuture<Void> consume(Consumer<RosterSnapshot> listener) {
+        return publisher.consume(listener);
+    }
+
+    /**
+     * Builds the model and starts the search on a background thread. Subscribe before calling this so as not to
+     * miss the first rosters.
+     *
+     * @throws IllegalStateException if the search was started before
+     */
+    public CompletableFuture<SolveResult> start() {
+        if (!started.compareAndSet(false, true)) {
+            throw new IllegalStateException("an anytime solver runs one search; create another to solve again");
+        }
+        ExecutorService executor = Executors.newSingleThreadExecutor(daemon("anytime-solver"));
+        CompletableFuture<SolveResult> result = CompletableFuture.supplyAsync(this::search, executor);
+        result.whenComplete((r, e) -> executor.shutdown());
+        return result;
+    }
+
+    /**
+     * Stops the search; the result is the best roster found so far. A stop before the search has started ends it as
+     * soon as it does.
+     */
+    public void stop() {
+        stopped = true;
+        CpSolver running = solver;
+        if (running != null) {
+            running.stopSearch();
+        }
+    }
+
+    public RosterSnapshot getBest() {
+        return best;
+    }
+
+    private SolveResult search() {
+        ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(daemon("anytime-solver-tick"));
+        try {
+            solver = new SchedulerSolver(table, options).solve();
+            improvedAt = System.nanoTime();
+            ticker.scheduleAtFixedRate(this::tick, 0, TICK_MILLIS, TimeUnit.MILLISECONDS);
+            CpSolverStatus status = solver.solve(table.getModel(), new CpSolverSolutionCallback() {
+                @Override
+                public void onSolutionCallback() {
+                    int solution = best == null ? 1 : best.solution() + 1;
+                    best = new RosterSnapshot(Roster.from(table, this::booleanValue), objectiveValue(),
+                            bestObjectiveBound(), wallTime(), solution);
+                    improvedAt = System.nanoTime();
+                    publisher.offer(best, (subscriber, dropped) -> false);
+                    checkStopPolicy();
+                }
+            });
+            SolveResult result = SolveResult.of(status, solver, options);
+            if (stoppedByPolicy && result.stopReason() == SolveResult.StopReason.INTERRUPTED) {
+                result = result.withStopReason(SolveResult.StopReason.STOP_POLICY);
+            }
+            publisher.close();
+            return result;
+        } catch (RuntimeException e) {
+            publisher.closeExceptionally(e);
+            throw e;
+        } finally {
+            ticker.shutdownNow();
+        }
+    }
+
+    private void tick() {
+        // a stopSearch() before the solver has begun its search is lost, so a stop is repeated until the search ends
+        if (stopped) {
+            solver.stopSearch();
+        }
+        checkStopPolicy();
+    }
+
+    private void checkStopPolicy() {
+        if (!stoppedByPolicy && stopPolicy.shouldStop(best, (System.nanoTime() - improvedAt) / 1e9)) {
+            stoppedByPolicy = true;
+            stop();
+        }
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,80 @@
+package org.wiles.scheduler;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Least-recently-used cache of compiled base models, keyed by interns, horizon and calendar. A spec that only adds
+ * leave or changes requests reuses the cached base, so a what-if run skips building the model.
+ * <p>
+ * A model is compiled outside the cache's lock, by the first caller that asks for it; later callers for the same key
+ * wait for that one build, callers for any other key do not.
+ */
+public class CompiledModelCache {
+
+    // guarded by this
+    private final Map<RosterSpec.Key, CompletableFuture<CompiledRoster>> cache;
+    private long hits;
+    private long misses;
+
+    public CompiledModelCache(int capacity) {
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<RosterSpec.Key, CompletableFuture<CompiledRoster>> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * The compiled base model for the spec's interns, horizon and calendar; solve the spec itself against it with
+     * {@link CompiledRoster#solve(RosterSpec, SolverOptions)}.
+     */
+    public CompiledRoster get(RosterSpec spec) {
+        RosterSpec.Key key = spec.key();
+        CompletableFuture<CompiledRoster> compiled;
+        boolean compile = false;
+        synchronized (this) {
+            compiled = cache.get(key);
+            if (compiled != null) {
+                hits++;
+            } else {
+                misses++;
+                compiled = new CompletableFuture<>();
+                cache.put(key, compiled);
+                compile = true;
+            }
+        }
+        if (compile) {
+            try {
+                compiled.complete(CompiledRoster.compile(spec.base()));
+            } catch (RuntimeException | Error e) {
+                // the next caller tries again
+                synchronized (this) {
+                    cache.remove(key, compiled);
+                }
+                compiled.completeExceptionally(e);
+                throw e;
+            }
+        }
+        try {
+            return compiled.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    public CompiledRoster.Solution solve(RosterSpec spec, SolverOptions options) {
+        return get(spec).solve(spec, options);
+    }
+
+    public synchronized long hits() {
+        return hits;
+    }
+
+    public synchronized long misses() {
+        return misses;
+    }
+}
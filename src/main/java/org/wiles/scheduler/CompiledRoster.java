@@ -0,0 +1,120 @@
+package org.wiles.scheduler;
+
+import com.google.common.collect.ImmutableSetMultimap;
+import com.google.ortools.sat.*;
+
+import java.util.Collection;
+
+/**
+ * A roster model that has been built once and can be solved any number of times.
+ * <p>
+ * The constraints are kept as an immutable {@link CpModelProto}. Every solve works on its own copy of it, so the
+ * same compiled roster can be solved concurrently, with different options, or with a variant of its spec laid on
+ * top: extra leave becomes extra constraints on the copy, and the copy's objective is rebuilt the way a full solve
+ * with the same options builds it, over the variant's requests.
+ */
+public final class CompiledRoster {
+
+    private final RosterSpec spec;
+    // only read after compile(): the literals' indices are what map a response back onto interns, days and shifts
+    private final Table table;
+    private final CpModelProto proto;
+
+    public record Solution(SolveResult result, Roster roster) {
+    }
+
+    private CompiledRoster(RosterSpec spec, Table table, CpModelProto proto) {
+        this.spec = spec;
+        this.table = table;
+        this.proto = proto;
+    }
+
+    public static CompiledRoster compile(RosterSpec spec) {
+        Table table = spec.toTable();
+        // variants add leave for individual interns, which ordering their rows would contradict
+        new SchedulerSolver(table, SolverOptions.builder().symmetryBreaking(false).build()).solve();
+        return new CompiledRoster(spec, table, table.getModel().model());
+    }
+
+    public RosterSpec spec() {
+        return spec;
+    }
+
+    public CpModelProto proto() {
+        return proto;
+    }
+
+    /**
+     * A fresh, mutable copy of the compiled model.
+     */
+    public CpModel copyModel() {
+        CpModel copy = new CpModel();
+        copy.getBuilder().mergeFrom(proto);
+        return copy;
+    }
+
+    public Solution solve(SolverOptions options) {
+        return solve(spec, options);
+    }
+
+    /**
+     * Solves a variant of the compiled spec. It must have the same {@link RosterSpec#key()} and at least the leave
+     * of the compiled spec, with any extra leave inside its interns and days; requests may differ freely.
+     */
+    public Solution solve(RosterSpec variant, SolverOptions options) {
+        if (!variant.key().equals(spec.key())) {
+            throw new IllegalArgumentException("variant has different interns, days or calendar to the compiled roster");
+        }
+        if (!variant.leave().entries().containsAll(spec.leave().entries())) {
+            throw new IllegalArgumentException("leave cannot be taken away from a compiled roster");
+        }
+        variant.leave().forEach((i, d) -> {
+            boolean outside = i < 0 || i >= spec.interns().size() || d < 0 || d >= spec.days();
+            if (outside && !spec.leave().containsEntry(i, d)) {
+                throw new IllegalArgumentException("leave of intern " + i + " on day " + d + " is outside the "
+                        + spec.interns().size() + " interns and " + spec.days() + " days of the compiled roster");
+            }
+        });
+        CpModel model = copyModel();
+        variant.leave().forEach((i, d) -> {
+            if (!spec.leave().containsEntry(i, d)) {
+                model.addEquality(LinearExpr.sum(cells(model, i, d)), 0);
+            }
+        });
+        // the objective of a full solve with these options, over the variant's requests; the table's variables have
+        // the same indices in the copy
+        LinearArgument requests = variant.requests().equals(spec.requests())
+                ? model.getIntVarFromProtoIndex(table.maxRequests.getIndex())
+                : requestsHonoured(model, variant.requests());
+        model.maximize(SchedulerSolver.objective(table, requests, options.balanceHours()));
+        return solve(model, options);
+    }
+
+    private Solution solve(CpModel model, SolverOptions options) {
+        CpSolver solver = new CpSolver();
+        options.applyTo(solver.getParameters());
+        CpSolverStatus status = solver.solve(model);
+        SolveResult result = SolveResult.of(status, solver, options);
+        // the copy has the same variable indices as the table, so its literals read the copy's response
+        return new Solution(result, result.hasSolution() ? Roster.of(table, solver) : null);
+    }
+
+    /**
+     * The cells of the intern on the day, as variables of {@code model}.
+     */
+    BoolVar[] cells(CpModel model, int intern, int day) {
+        return table.getInterns(intern, day).stream()
+                .map(cell -> model.getBoolVarFromProtoIndex(((BoolVar) cell).getIndex())).toArray(BoolVar[]::new);
+    }
+
+    private LinearExpr requestsHonoured(CpModel model, ImmutableSetMultimap<Integer, Integer> requests) {
+        LinearExprBuilder obj = LinearExpr.newBuilder();
+        requests.asMap().forEach((i, days) -> days.stream().filter(d -> d < spec.days()).forEach(d -> {
+            obj.add(1);
+            for (BoolVar cell : cells(model, i, d)) {
+                obj.addTerm(cell, -1);
+            }
+        }));
+        return obj.build();
+    }
+}
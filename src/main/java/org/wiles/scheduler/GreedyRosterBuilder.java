@@ -0,0 +1,195 @@
+package org.wiles.scheduler;
+
+import com.google.ortools.sat.BoolVar;
+import com.google.ortools.sat.CpModel;
+import org.wiles.scheduler.Table.Shift;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Builds a roster day by day in plain Java, without searching: each shift goes to the available intern furthest below
+ * their most shifts, preferring interns who asked for the shift and then those who did not ask for the day off, with
+ * ties broken at random. It takes microseconds to milliseconds, so it serves as an instant preview and, through
+ * {@link #hint(Table, Roster)}, as a starting point for CP-SAT.
+ * <p>
+ * Leave, other blocks and rest are never broken. When nobody may take a shift without going over the most shifts, the
+ * most is broken instead; when nobody can take it at all, it stays empty. Both are listed as violations, as are
+ * interns who end up with fewer than the fewest shifts, so an empty list means the roster satisfies every hard rule of
+ * the model.
+ */
+public class GreedyRosterBuilder {
+
+    public enum Kind {
+        /** nobody could work the shift */
+        UNCOVERED,
+        /** the intern works more than the most shifts */
+        MAX_SHIFTS,
+        /** the intern works fewer than the fewest shifts */
+        MIN_SHIFTS
+    }
+
+    /**
+     * @param intern the intern, or -1 for an uncovered shift
+     * @param day    the day, or -1 for a violation over the whole roster
+     * @param shift  the shift ordinal, or -1 for a violation over the whole roster
+     */
+    public record Violation(Kind kind, int intern, int day, int shift) {
+    }
+
+    /**
+     * @param requestsHonoured the weight of the requests honoured, as {@link Table#requestScore(Roster)} counts it
+     */
+    public record Result(Roster roster, List<Violation> violations, int requestsHonoured) {
+
+        public boolean isFeasible() {
+            return violations.isEmpty();
+        }
+    }
+
+    private final Table table;
+
+    public GreedyRosterBuilder(Table table) {
+        this.table = table;
+    }
+
+    /**
+     * One randomised pass.
+     */
+    public Result build(long seed) {
+        Random random = new Random(seed);
+        int n = table.getInterns().size();
+        int[] fewest = new int[n];
+        int[] most = new int[n];
+        boolean[][] requested = new boolean[n][table.days];
+        table.getRequestMap().forEach((intern, day) -> {
+            if (day >= 0 && day < table.days) {
+                requested[intern][day] = true;
+            }
+        });
+        // days wanted, by day * shifts + shift
+        boolean[][] wanted = new boolean[n][table.days * Shift.values().length];
+        table.getRequests().forEach((intern, request) -> {
+            if (request.type() == Request.Type.SHIFT_WANTED
+                    && request.fromDay() >= 0 && request.fromDay() < table.days) {
+                wanted[intern][request.fromDay() * Shift.values().length + request.shift().ordinal()] = true;
+            }
+        });
+        int[] worked = new int[n];
+        // first day each intern may work again
+        int[] freeFrom = new int[n];
+        for (int i = 0; i < n; i++) {
+            worked[i] = table.getPriorShifts(i);
+            int[] bounds = SchedulerSolver.shiftBounds(table, i);
+            fewest[i] = bounds[0];
+            most[i] = bounds[1];
+            int lastShiftDay = table.getLastShiftDay(i);
+            freeFrom[i] = lastShiftDay == Integer.MIN_VALUE
+                    ? 0 : lastShiftDay + table.getRestDays(table.getLastShift(i)) + 1;
+        }
+        // random order per run, so ties go to different interns
+        int[] tieBreak = new int[n];
+        Arrays.setAll(tieBreak, i -> random.nextInt());
+
+        List<Violation> violations = new ArrayList<>();
+        int[][] assignees = new int[table.days][Shift.values().length];
+        for (int d = 0; d < table.days; d++) {
+            Arrays.fill(assignees[d], -1);
+            for (Shift shift : Shift.values()) {
+                int s = shift.ordinal();
+                if (!table.runs(d, s)) {
+                    continue;
+                }
+                int best = -1;
+                for (int i = 0; i < n; i++) {
+                    if (!table.isAvailable(i, d) || freeFrom[i] > d) {
+                        continue;
+                    }
+                    if (best < 0 || better(i, best, d, most, worked, requested,
+                            wanted[i][d * Shift.values().length + s], wanted[best][d * Shift.values().length + s],
+                            tieBreak)) {
+                        best = i;
+                    }
+                }
+                if (best < 0) {
+                    violations.add(new Violation(Kind.UNCOVERED, -1, d, s));
+                    continue;
+                }
+                if (worked[best] >= most[best]) {
+                    violations.add(new Violation(Kind.MAX_SHIFTS, best, d, s));
+                }
+                assignees[d][s] = best;
+                worked[best]++;
+                freeFrom[best] = d + table.getRestDays(shift) + 1;
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            if (worked[i] < fewest[i]) {
+                violations.add(new Violation(Kind.MIN_SHIFTS, i, -1, -1));
+            }
+        }
+        Roster roster = new Roster(n, assignees);
+        return new Result(roster, violations, table.requestScore(roster));
+    }
+
+    /**
+     * The best of several randomised passes: fewest violations, then the most request weight honoured.
+     */
+    public Result build(long seed, int attempts) {
+        Result best = null;
+        for (int attempt = 0; attempt < attempts; attempt++) {
+            Result result = build(seed + attempt);
+            if (best == null || result.violations().size() < best.violations().size()
+                    || result.violations().size() == best.violations().size()
+                    && result.requestsHonoured() > best.requestsHonoured()) {
+                best = result;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Whether {@code candidate} should take the shift rather than {@code best}: staying under the most shifts first,
+     * then having asked for the shift, then not having asked for the day off, then more shifts still to go before the
+     * most, so part-timers fill up at their own rate.
+     */
+    private static boolean better(int candidate, int best, int day, int[] most, int[] worked, boolean[][] requested,
+                                  boolean candidateWants, boolean bestWants, int[] tieBreak) {
+        int candidateLeft = most[candidate] - worked[candidate];
+        int bestLeft = most[best] - worked[best];
+        if (candidateLeft > 0 != bestLeft > 0) {
+            return candidateLeft > 0;
+        }
+        if (candidateWants != bestWants) {
+            return candidateWants;
+        }
+        if (requested[candidate][day] != requested[best][day]) {
+            return !requested[best][day];
+        }
+        if (candidateLeft != bestLeft) {
+            return candidateLeft > bestLeft;
+        }
+        return tieBreak[candidate] < tieBreak[best];
+    }
+
+    /**
+     * Hints every cell of the table's model with the roster, replacing any hints already there. The previous roster of
+     * the table, if set, hints the cells again when the model is built, so use one or the other.
+     */
+    public static void hint(Table table, Roster roster) {
+        CpModel model = table.getModel();
+        model.clearHints();
+        for (int d = 0; d < Math.min(table.days, roster.days()); d++) {
+            for (int s : table.allShifts) {
+                for (int i : table.allInterns) {
+                    BoolVar cell = table.get(i, d, s);
+                    if (cell != null) {
+                        model.addHint(cell, roster.isOn(i, d, s) ? 1 : 0);
+                    }
+                }
+            }
+        }
+    }
+}
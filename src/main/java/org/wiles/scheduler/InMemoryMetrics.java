@@ -0,0 +1,37 @@
+package org.wiles.scheduler;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Keeps every phase and progress point that was reported, in order.
+ */
+public class InMemoryMetrics implements SchedulerMetrics {
+
+    public record Phase(String phase, long nanos, long variables, long constraints) {
+    }
+
+    public record Progress(double wallTime, double objective, double bestBound, long conflicts, long branches) {
+    }
+
+    private final List<Phase> phases = new CopyOnWriteArrayList<>();
+    private final List<Progress> progress = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void phase(String phase, long nanos, long variables, long constraints) {
+        phases.add(new Phase(phase, nanos, variables, constraints));
+    }
+
+    @Override
+    public void progress(double wallTime, double objective, double bestBound, long conflicts, long branches) {
+        progress.add(new Progress(wallTime, objective, bestBound, conflicts, branches));
+    }
+
+    public List<Phase> getPhases() {
+        return List.copyOf(phases);
+    }
+
+    public List<Progress> getProgress() {
+        return List.copyOf(progress);
+    }
+}
@@ -0,0 +1,263 @@
+package org.wiles.scheduler;
+
+import com.google.ortools.sat.*;
+import org.wiles.scheduler.Table.Shift;
+
+import java.util.*;
+
+/**
+ * Explains why a table has no roster, in terms a coordinator can act on: which leave entries, blocks, requests and
+ * shifts-per-intern bounds clash.
+ * <p>
+ * {@link #preCheck()} runs counting arguments in O(interns &times; days) and finds the common cases in milliseconds.
+ * {@link #conflicts()} guards every leave entry, blocked day, request and bound with an assumption literal, asks
+ * CP-SAT for a set of assumptions that cannot hold together and shrinks that set until dropping any one entry makes
+ * the rest feasible. Requests are hard in the diagnosis, so a clash between requests only is reported too; leave them
+ * out of the table to diagnose leave alone.
+ */
+public class InfeasibilityDiagnosis {
+
+    public enum Kind {
+        /** more shifts on a day, or within one rest window, than interns available to work them */
+        COVERAGE,
+        /** an intern on leave */
+        LEAVE,
+        /** an intern at an exam or on a rotation elsewhere */
+        UNAVAILABLE,
+        /** an intern asking for a day off */
+        REQUEST,
+        /** an intern working at least the fewest shifts */
+        MIN_SHIFTS,
+        /** an intern working at most the most shifts */
+        MAX_SHIFTS
+    }
+
+    /**
+     * @param intern index of the intern, or -1 when the conflict is not about one intern
+     * @param day    the day, or the first day of a window, or -1 when the conflict is not about one day
+     */
+    public record Conflict(Kind kind, int intern, int day, String description) {
+    }
+
+    private final Table table;
+    private final SolverOptions options;
+
+    public InfeasibilityDiagnosis(Table table) {
+        // cores are only reported reliably by a single worker
+        this(table, SolverOptions.builder().workers(1).maxTimeSeconds(10).build());
+    }
+
+    public InfeasibilityDiagnosis(Table table, SolverOptions options) {
+        this.table = table;
+        this.options = options;
+    }
+
+    /**
+     * Necessary conditions for a roster to exist. An empty list does not prove that there is one.
+     */
+    public List<Conflict> preCheck() {
+        int n = table.getInterns().size();
+        int days = table.days;
+        int rest = table.getRestDays();
+        boolean[][] available = availability();
+        List<Conflict> conflicts = new ArrayList<>();
+
+        // interns available on at least one day of the window ending on each day, from prefix sums per intern
+        int[][] availableBefore = new int[n][days + 1];
+        for (int i = 0; i < n; i++) {
+            for (int d = 0; d < days; d++) {
+                availableBefore[i][d + 1] = availableBefore[i][d] + (available[i][d] ? 1 : 0);
+            }
+        }
+        boolean[] dayShort = new boolean[days];
+        for (int d = 0; d < days; d++) {
+            int shifts = table.getLayout().requiredShifts(d);
+            int interns = 0;
+            for (int i = 0; i < n; i++) {
+                interns += available[i][d] ? 1 : 0;
+            }
+            if (interns < shifts) {
+                dayShort[d] = true;
+                conflicts.add(new Conflict(Kind.COVERAGE, -1, d,
+                        String.format("day %d has %d shifts but only %d interns are available", d, shifts, interns)));
+            }
+        }
+        // every intern works at most one shift in any rest window
+        if (rest > 0) {
+            for (int from = 0; from + rest < days; from++) {
+                int to = from + rest;
+                boolean alreadyShort = false;
+                for (int d = from; d <= to; d++) {
+                    alreadyShort |= dayShort[d];
+                }
+                if (alreadyShort) {
+                    continue;
+                }
+                int shifts = 0;
+                for (int d = from; d <= to; d++) {
+                    shifts += table.getLayout().requiredShifts(d);
+                }
+                int interns = 0;
+                for (int i = 0; i < n; i++) {
+                    interns += availableBefore[i][to + 1] > availableBefore[i][from] ? 1 : 0;
+                }
+                if (interns < shifts) {
+                    conflicts.add(new Conflict(Kind.COVERAGE, -1, from, String.format(
+                            "days %d to %d have %d shifts but only %d interns are available to work one each",
+                            from, to, shifts, interns)));
+                }
+            }
+        }
+
+        int capacity = 0;
+        for (int i = 0; i < n; i++) {
+            int[] bounds = SchedulerSolver.shiftBounds(table, i);
+            int prior = table.getPriorShifts(i);
+            int most = mostShifts(available[i], rest);
+            if (prior + most < bounds[0]) {
+                conflicts.add(new Conflict(Kind.MIN_SHIFTS, i, -1, String.format(
+                        "%s can work at most %d shifts around leave and rest but needs %d",
+                        table.getInterns().get(i), most, bounds[0] - prior)));
+            }
+            if (prior > bounds[1]) {
+                conflicts.add(new Conflict(Kind.MAX_SHIFTS, i, -1, String.format(
+                        "%s already worked %d shifts, more than the %d of their share",
+                        table.getInterns().get(i), prior, bounds[1])));
+            }
+            capacity += Math.max(0, Math.min(most, bounds[1] - prior));
+        }
+        if (capacity < table.getNumberOfShifts()) {
+            conflicts.add(new Conflict(Kind.MAX_SHIFTS, -1, -1, String.format(
+                    "the interns can work at most %d of the %d shifts", capacity, table.getNumberOfShifts())));
+        }
+        return conflicts;
+    }
+
+    /**
+     * A smallest set of leave entries, requests and bounds that cannot all hold, or an empty list when they can.
+     * Smallest means that dropping any one of them leaves a set that can hold; a smaller, different set may exist.
+     */
+    public List<Conflict> conflicts() {
+        Table rules = table.copyRules();
+        new SchedulerSolver(rules, options.toBuilder().symmetryBreaking(false).build()).buildRules();
+        CpModel model = rules.getModel();
+        Map<Integer, Conflict> guarded = new LinkedHashMap<>();
+
+        table.getLeaveMap().forEach((intern, day) -> guardOff(rules, guarded, Kind.LEAVE, intern, day));
+        table.getBlocks().forEach((intern, block) -> {
+            if (block.reason() != Table.Unavailability.LEAVE) {
+                for (int day = block.fromDay(); day <= block.toDay(); day++) {
+                    guardOff(rules, guarded, Kind.UNAVAILABLE, intern, day);
+                }
+            }
+        });
+        table.getRequestMap().forEach((intern, day) -> guardOff(rules, guarded, Kind.REQUEST, intern, day));
+        for (int i : table.allInterns) {
+            int[] bounds = SchedulerSolver.shiftBounds(table, i);
+            LinearExprBuilder worked = LinearExpr.newBuilder();
+            rules.getInterns(i).forEach(worked::add);
+            worked.add(table.getPriorShifts(i));
+            String name = table.getInterns().get(i);
+            BoolVar atLeast = model.newBoolVar(name + " at least " + bounds[0]);
+            model.addGreaterOrEqual(worked, bounds[0]).onlyEnforceIf(atLeast);
+            guarded.put(atLeast.getIndex(), new Conflict(Kind.MIN_SHIFTS, i, -1,
+                    String.format("%s works at least %d shifts", name, bounds[0])));
+            BoolVar atMost = model.newBoolVar(name + " at most " + bounds[1]);
+            model.addLessOrEqual(worked, bounds[1]).onlyEnforceIf(atMost);
+            guarded.put(atMost.getIndex(), new Conflict(Kind.MAX_SHIFTS, i, -1,
+                    String.format("%s works at most %d shifts", name, bounds[1])));
+        }
+
+        List<Integer> core = new ArrayList<>(guarded.keySet());
+        CpSolver solver = solver();
+        if (!infeasible(model, solver, core)) {
+            return List.of();
+        }
+        core = new ArrayList<>(solver.sufficientAssumptionsForInfeasibility());
+        // deletion: an assumption stays only if the others are feasible without it
+        for (int k = 0; k < core.size(); ) {
+            List<Integer> without = new ArrayList<>(core);
+            without.remove(k);
+            if (infeasible(model, solver, without)) {
+                core = without;
+            } else {
+                k++;
+            }
+        }
+        return core.stream().map(guarded::get).toList();
+    }
+
+    private void guardOff(Table rules, Map<Integer, Conflict> guarded, Kind kind, int intern, int day) {
+        if (day < 0 || day >= table.days) {
+            return;
+        }
+        String name = table.getInterns().get(intern);
+        BoolVar guard = rules.getModel().newBoolVar(kind + " " + name + " " + day);
+        LinearExprBuilder working = LinearExpr.newBuilder();
+        rules.getInterns(intern, day).forEach(working::add);
+        rules.getModel().addEquality(working, 0).onlyEnforceIf(guard);
+        guarded.put(guard.getIndex(), new Conflict(kind, intern, day,
+                String.format("%s is off on day %d (%s)", name, day, reason(intern, day, kind))));
+    }
+
+    private String reason(int intern, int day, Kind kind) {
+        if (kind != Kind.UNAVAILABLE) {
+            return kind.name().toLowerCase();
+        }
+        return table.getBlocks().get(intern).stream().filter(block -> block.fromDay() <= day && day <= block.toDay())
+                .map(block -> block.reason().name().toLowerCase()).findFirst().orElse("unavailable");
+    }
+
+    private boolean infeasible(CpModel model, CpSolver solver, List<Integer> assumptions) {
+        model.clearAssumptions();
+        model.addAssumptions(assumptions.stream().map(model::getBoolVarFromProtoIndex).toArray(Literal[]::new));
+        CpSolverStatus status = solver.solve(model);
+        if (status == CpSolverStatus.UNKNOWN) {
+            throw new IllegalStateException("diagnosis ran out of time; raise the time limit of its solver options");
+        }
+        return status == CpSolverStatus.INFEASIBLE;
+    }
+
+    private CpSolver solver() {
+        CpSolver solver = new CpSolver();
+        options.applyTo(solver.getParameters());
+        return solver;
+    }
+
+    /**
+     * Whether each intern can work each day: not on leave or otherwise blocked and not still resting from a shift
+     * worked before day 0.
+     */
+    private boolean[][] availability() {
+        boolean[][] available = new boolean[table.getInterns().size()][table.days];
+        for (int i : table.allInterns) {
+            Arrays.fill(available[i], true);
+            int lastShiftDay = table.getLastShiftDay(i);
+            if (lastShiftDay != Integer.MIN_VALUE) {
+                Shift lastShift = table.getLastShift(i);
+                for (int d = 0; d <= Math.min(table.days - 1, lastShiftDay + table.getRestDays(lastShift)); d++) {
+                    available[i][d] = false;
+                }
+            }
+        }
+        for (int i : table.allInterns) {
+            table.getUnavailable(i).stream().forEach(day -> available[i][day] = false);
+        }
+        return available;
+    }
+
+    /**
+     * The most shifts an intern can work on the available days, at most one per rest window: taking the earliest
+     * available day each time is optimal.
+     */
+    private static int mostShifts(boolean[] available, int rest) {
+        int shifts = 0;
+        for (int d = 0; d < available.length; d++) {
+            if (available[d]) {
+                shifts++;
+                d += rest;
+            }
+        }
+        return shifts;
+    }
+}
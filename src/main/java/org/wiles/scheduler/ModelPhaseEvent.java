@@ -0,0 +1,25 @@
+package org.wiles.scheduler;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * One constraint phase of {@link SchedulerSolver} building the model. The event's duration is the phase's.
+ */
+@Name("org.wiles.scheduler.ModelPhase")
+@Label("Model Phase")
+@Category("Scheduler")
+@Description("A constraint phase of building the roster model")
+class ModelPhaseEvent extends jdk.jfr.Event {
+
+    @Label("Phase")
+    String phase;
+
+    @Label("Variables Added")
+    long variables;
+
+    @Label("Constraints Added")
+    long constraints;
+}
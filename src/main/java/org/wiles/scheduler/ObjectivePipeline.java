@@ -0,0 +1,112 @@
+package org.wiles.scheduler;
+
+import com.google.ortools.sat.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Optimises the roster's objectives one after the other in order of priority, instead of folding them into one
+ * weighted sum. Each stage solves with its own objective; its result is then fixed as a bound on that objective and
+ * its roster is passed as the hint for the next stage, so later stages only choose among the rosters that are
+ * optimal (or as good as found) for the earlier ones.
+ * <p>
+ * Every stage gets the full time limit of the {@link SolverOptions}. The split of shifts between interns is not a stage:
+ * it is a hard rule, each intern between the floor and the ceiling of their share, so there is nothing left to
+ * optimise about it.
+ */
+public class ObjectivePipeline {
+
+    public enum Stage {
+        /** maximise the off requests honoured */
+        REQUESTS(true),
+        /** minimise the shifts moved away from the previous roster; skipped without one */
+        STABILITY(false),
+        /** minimise the difference in hours between the busiest and the least busy intern */
+        HOUR_SPREAD(false);
+
+        private final boolean maximize;
+
+        Stage(boolean maximize) {
+            this.maximize = maximize;
+        }
+
+        private IntVar objective(Table table) {
+            return switch (this) {
+                case REQUESTS -> table.maxRequests;
+                case STABILITY -> table.changes;
+                case HOUR_SPREAD -> table.hourSpread;
+            };
+        }
+    }
+
+    public static final List<Stage> DEFAULT_PRIORITIES = List.of(Stage.REQUESTS, Stage.STABILITY, Stage.HOUR_SPREAD);
+
+    public record StageResult(Stage stage, SolveResult result, long value) {
+    }
+
+    /**
+     * @param roster the roster of the last stage that found one, or null if none did
+     */
+    public record Result(List<StageResult> stages, Roster roster) {
+    }
+
+    private final Table table;
+    private final SolverOptions options;
+    private final List<Stage> priorities;
+
+    public ObjectivePipeline(Table table, SolverOptions options) {
+        this(table, options, DEFAULT_PRIORITIES);
+    }
+
+    public ObjectivePipeline(Table table, SolverOptions options, List<Stage> priorities) {
+        this.table = table;
+        this.options = options;
+        this.priorities = priorities;
+    }
+
+    /**
+     * Builds the model if that has not happened yet and runs the stages. Stops early at a stage that finds no roster.
+     * The bounds are added to the table's model, so a table can only be run through a pipeline once.
+     */
+    public Result run() {
+        CpSolver solver = new SchedulerSolver(table, options).solve();
+        CpModel model = table.getModel();
+        List<StageResult> stages = new ArrayList<>();
+        Roster roster = null;
+
+        for (Stage stage : priorities) {
+            IntVar objective = stage.objective(table);
+            if (objective == null) {
+                continue;
+            }
+            model.clearObjective();
+            if (stage.maximize) {
+                model.maximize(objective);
+            } else {
+                model.minimize(objective);
+            }
+            CpSolverStatus status = solver.solve(model);
+            SolveResult result = SolveResult.of(status, solver, options);
+            if (!result.hasSolution()) {
+                stages.add(new StageResult(stage, result, 0));
+                break;
+            }
+            long value = solver.value(objective);
+            stages.add(new StageResult(stage, result, value));
+            roster = Roster.of(table, solver);
+
+            // later stages may not make this one worse than what it reached
+            if (stage.maximize) {
+                model.addGreaterOrEqual(objective, value);
+            } else {
+                model.addLessOrEqual(objective, value);
+            }
+            model.clearHints();
+            for (Literal cell : table.get(null, null, null)) {
+                model.addHint((BoolVar) cell, solver.value(cell));
+            }
+        }
+        return new Result(stages, roster);
+    }
+}
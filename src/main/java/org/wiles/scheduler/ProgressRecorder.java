@@ -0,0 +1,34 @@
+package org.wiles.scheduler;
+
+import com.google.ortools.sat.CpSolverSolutionCallback;
+
+/**
+ * Reports every improving solution of a search as a {@link SolverProgressEvent} and to the metrics.
+ */
+class ProgressRecorder extends CpSolverSolutionCallback {
+
+    private final SchedulerMetrics metrics;
+
+    ProgressRecorder(SchedulerMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void onSolutionCallback() {
+        record(metrics, wallTime(), objectiveValue(), bestObjectiveBound(), numConflicts(), numBranches());
+    }
+
+    static void record(SchedulerMetrics metrics, double wallTime, double objective, double bestBound, long conflicts, long branches) {
+        SolverProgressEvent event = new SolverProgressEvent();
+        if (event.shouldCommit()) {
+            event.wallTime = wallTime;
+            event.objective = objective;
+            event.bestBound = bestBound;
+            event.gap = SolveResult.gap(objective, bestBound);
+            event.conflicts = conflicts;
+            event.branches = branches;
+            event.commit();
+        }
+        metrics.progress(wallTime, objective, bestBound, conflicts, branches);
+    }
+}
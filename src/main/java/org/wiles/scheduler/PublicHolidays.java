@@ -0,0 +1,122 @@
+package org.wiles.scheduler;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.util.*;
+
+/**
+ * Public holidays of a region, read from {@code /holidays/<region>.txt} on the classpath. The file lists rules rather
+ * than dates, so it does not run out: fixed dates, Easter-relative dates, one-off dates and whether a holiday on a
+ * Sunday moves to the Monday.
+ */
+public final class PublicHolidays {
+
+    private final String region;
+    private final Map<MonthDay, String> fixed = new LinkedHashMap<>();
+    private final Map<Integer, String> easterOffsets = new LinkedHashMap<>();
+    private final Map<LocalDate, String> oneOff = new LinkedHashMap<>();
+    private boolean sundayToMonday;
+
+    private PublicHolidays(String region) {
+        this.region = region;
+    }
+
+    public static PublicHolidays load(String region) {
+        String resource = "/holidays/" + region + ".txt";
+        InputStream in = PublicHolidays.class.getResourceAsStream(resource);
+        if (in == null) {
+            throw new IllegalArgumentException("no public holidays for region " + region + " (" + resource + ")");
+        }
+        PublicHolidays holidays = new PublicHolidays(region);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                holidays.parse(line.strip());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return holidays;
+    }
+
+    private void parse(String line) {
+        if (line.isEmpty() || line.startsWith("#")) {
+            return;
+        }
+        if (line.equals("sunday-to-monday")) {
+            sundayToMonday = true;
+            return;
+        }
+        int space = line.indexOf(' ');
+        String when = space < 0 ? line : line.substring(0, space);
+        String name = space < 0 ? when : line.substring(space + 1).strip();
+        try {
+            if (when.startsWith("easter")) {
+                easterOffsets.put(Integer.parseInt(when.substring("easter".length()).replace("+", "")), name);
+            } else if (when.length() == 5) {
+                fixed.put(MonthDay.parse("--" + when), name);
+            } else {
+                oneOff.put(LocalDate.parse(when), name);
+            }
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("bad public holiday in " + region + ": " + line, e);
+        }
+    }
+
+    /**
+     * The holidays observed from {@code from} to {@code to}, both included, with their names, in date order.
+     */
+    public NavigableMap<LocalDate, String> between(LocalDate from, LocalDate to) {
+        NavigableMap<LocalDate, String> holidays = new TreeMap<>();
+        for (int year = from.getYear(); year <= to.getYear(); year++) {
+            Map<LocalDate, String> ofYear = new TreeMap<>();
+            for (Map.Entry<MonthDay, String> entry : fixed.entrySet()) {
+                if (entry.getKey().isValidYear(year)) {
+                    ofYear.put(entry.getKey().atYear(year), entry.getValue());
+                }
+            }
+            LocalDate easter = easter(year);
+            easterOffsets.forEach((offset, name) -> ofYear.put(easter.plusDays(offset), name));
+            for (Map.Entry<LocalDate, String> entry : oneOff.entrySet()) {
+                if (entry.getKey().getYear() == year) {
+                    ofYear.put(entry.getKey(), entry.getValue());
+                }
+            }
+            if (sundayToMonday) {
+                new ArrayList<>(ofYear.entrySet()).stream()
+                        .filter(entry -> entry.getKey().getDayOfWeek() == DayOfWeek.SUNDAY)
+                        .forEach(entry -> ofYear.putIfAbsent(entry.getKey().plusDays(1), entry.getValue() + " (observed)"));
+            }
+            holidays.putAll(ofYear);
+        }
+        return holidays.subMap(from, true, to, true);
+    }
+
+    /**
+     * Easter Sunday of the Gregorian calendar (the anonymous Gregorian algorithm).
+     */
+    static LocalDate easter(int year) {
+        int a = year % 19;
+        int b = year / 100;
+        int c = year % 100;
+        int d = b / 4;
+        int e = b % 4;
+        int f = (b + 8) / 25;
+        int g = (b - f + 1) / 3;
+        int h = (19 * a + b - d - g + 15) % 30;
+        int i = c / 4;
+        int k = c % 4;
+        int l = (32 + 2 * e + 2 * i - h - k) % 7;
+        int m = (a + 11 * h + 22 * l) / 451;
+        int month = (h + l - 7 * m + 114) / 31;
+        int day = (h + l - 7 * m + 114) % 31 + 1;
+        return LocalDate.of(year, month, day);
+    }
+}
@@ -0,0 +1,74 @@
+package org.wiles.scheduler;
+
+import org.wiles.scheduler.Table.Shift;
+
+/**
+ * Something an intern asks for, honoured if the roster allows it. Requests are soft: the solver honours as much
+ * weight as it can, and a request of weight 3 wins over any two of weight 1.
+ *
+ * @param fromDay first day of the request
+ * @param toDay   last day of the request, included; a weekend off covers every day of the weekend
+ * @param shift   the shift wanted, or null for time off
+ */
+public record Request(Type type, int fromDay, int toDay, Shift shift, int weight) {
+
+    public enum Type {
+        /** no shift on the day */
+        DAY_OFF,
+        /** no shift on any day of the weekend or run of public holidays the day is in */
+        WEEKEND_OFF,
+        /** a particular shift on the day */
+        SHIFT_WANTED
+    }
+
+    public Request {
+        if (weight < 1) {
+            throw new IllegalArgumentException("a request needs a weight of at least 1 but had " + weight);
+        }
+        if ((type == Type.SHIFT_WANTED) != (shift != null)) {
+            throw new IllegalArgumentException("only a " + Type.SHIFT_WANTED + " request names a shift");
+        }
+    }
+
+    public static Request dayOff(int day) {
+        return new Request(Type.DAY_OFF, day, day, null, 1);
+    }
+
+    /**
+     * The weekend of the day; the table widens it to the whole weekend when it is added.
+     */
+    public static Request weekendOff(int day) {
+        return new Request(Type.WEEKEND_OFF, day, day, null, 1);
+    }
+
+    public static Request shiftWanted(int day, Shift shift) {
+        return new Request(Type.SHIFT_WANTED, day, day, shift, 1);
+    }
+
+    public Request withWeight(int weight) {
+        return new Request(type, fromDay, toDay, shift, weight);
+    }
+
+    Request withDays(int fromDay, int toDay) {
+        return new Request(type, fromDay, toDay, shift, weight);
+    }
+
+    public boolean isTimeOff() {
+        return type != Type.SHIFT_WANTED;
+    }
+
+    /**
+     * Whether the roster gives the intern what they asked for.
+     */
+    public boolean isHonouredBy(Roster roster, int intern) {
+        if (type == Type.SHIFT_WANTED) {
+            return fromDay < roster.days() && roster.assignee(fromDay, shift.ordinal()) == intern;
+        }
+        for (int d = fromDay; d <= Math.min(toDay, roster.days() - 1); d++) {
+            if (roster.isWorking(intern, d)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,181 @@
+package org.wiles.scheduler;
+
+import com.google.ortools.sat.CpSolver;
+import com.google.ortools.sat.CpSolverStatus;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Solves a long horizon (a quarter, a rotation year) as a sequence of overlapping windows instead of one model.
+ * <p>
+ * Each window is a normal {@link Table} solved by {@link SchedulerSolver}. Only the days up to the start of the next
+ * window are kept; the overlap is solved again by the next window, which gets those days as hints. The kept days are
+ * carried into the next window as prior shifts (for the shift and hour balancing) and as the last shift each intern
+ * worked (for the rest rules), and finally stitched into a single {@link Roster}.
+ * <p>
+ * Prior shifts are hard bounds on a window's split, so each intern is carried as how far they are ahead of or behind
+ * their share of the kept days, at most {@link #MAX_CARRY} shifts of a type. A window that is infeasible with that is
+ * solved again with half the carry, down to none, so an intern who fell behind catches up over several windows.
+ */
+public class RollingHorizonSolver {
+
+    /**
+     * The most shifts of one type an intern is carried ahead of or behind their share into a window.
+     */
+    public static final int MAX_CARRY = RosterHistory.MAX_CARRY;
+
+    private final RosterSpec spec;
+    private final List<String> interns;
+    private final int days;
+    private final int windowDays;
+    private final int overlapDays;
+    private final SolverOptions options;
+
+    /**
+     * @param windowDays  length of each window, e.g. 14
+     * @param overlapDays days at the end of each window that are solved again by the next one, e.g. 3
+     */
+    public RollingHorizonSolver(RosterSpec spec, int windowDays, int overlapDays, SolverOptions options) {
+        if (overlapDays < 0 || overlapDays >= windowDays) {
+            throw new IllegalArgumentException("overlap must be in [0, " + windowDays + ") but was " + overlapDays);
+        }
+        this.spec = spec;
+        this.interns = spec.interns();
+        this.days = spec.days();
+        this.windowDays = windowDays;
+        this.overlapDays = overlapDays;
+        this.options = options;
+    }
+
+    /**
+     * @param requestsHonoured the requests the stitched roster honours
+     * @param objective        what the monolithic model's objective makes of the stitched roster, requests weighted and
+     *                         the hour spread included as the options have it; {@code NaN} if it was not solved
+     */
+    public record Result(Roster roster, int windows, int requestsHonoured, double objective, SolveResult monolithic) {
+
+        /**
+         * Relative gap between the stitched roster and the monolithic objective, or {@code NaN} if the monolithic
+         * model was not solved.
+         */
+        public double gap() {
+            if (monolithic == null || !monolithic.hasSolution()) {
+                return Double.NaN;
+            }
+            return (monolithic.objective() - objective) / Math.max(1, Math.abs(monolithic.objective()));
+        }
+    }
+
+    public Result solve() {
+        return solve(false);
+    }
+
+    /**
+     * @param compareWithMonolithic also solve the whole horizon as one model (with the same options, so give it a
+     *                              time limit) to report how much the decomposition gave up
+     */
+    public Result solve(boolean compareWithMonolithic) {
+        int[][] stitched = new int[days][];
+        int[][] worked = new int[interns.size()][Table.Shift.values().length];
+        int[] lastShiftDay = new int[interns.size()];
+        Arrays.fill(lastShiftDay, Integer.MIN_VALUE);
+        Table.Shift[] lastShift = new Table.Shift[interns.size()];
+        Roster lookAhead = null;
+        int windows = 0;
+
+        int step = windowDays - overlapDays;
+        for (int start = 0; start < days; start += step) {
+            int end = Math.min(days, start + windowDays);
+            int keep = end == days ? end : start + step;
+            Table window;
+            CpSolver solver;
+            CpSolverStatus status;
+            for (int carry = MAX_CARRY; ; carry /= 2) {
+                window = window(start, end, worked, carry, lastShiftDay, lastShift);
+                if (lookAhead != null) {
+                    window.setPreviousRoster(lookAhead, false);
+                }
+                solver = new SchedulerSolver(window, options).solve();
+                status = solver.solve(window.getModel());
+                if (status != CpSolverStatus.INFEASIBLE || carry == 0) {
+                    break;
+                }
+            }
+            if (status != CpSolverStatus.OPTIMAL && status != CpSolverStatus.FEASIBLE) {
+                throw new IllegalStateException("window of days " + start + "-" + (end - 1) + " is " + status);
+            }
+            Roster roster = Roster.of(window, solver);
+            windows++;
+
+            for (int d = start; d < keep; d++) {
+                stitched[d] = new int[Table.Shift.values().length];
+                for (int s = 0; s < stitched[d].length; s++) {
+                    int intern = roster.assignee(d - start, s);
+                    stitched[d][s] = intern;
+                    if (intern >= 0) {
+                        worked[intern][s]++;
+                        lastShiftDay[intern] = d;
+                        lastShift[intern] = Table.Shift.values()[s];
+                    }
+                }
+            }
+            lookAhead = keep < end ? roster.subRoster(keep - start, end - start) : null;
+            if (keep == days) {
+                break;
+            }
+        }
+
+        Roster roster = new Roster(spec.interns().size(), stitched);
+        if (!compareWithMonolithic) {
+            return new Result(roster, windows, requestsHonoured(roster), Double.NaN, null);
+        }
+        Table table = spec.toTable();
+        SolveResult monolithic = new SchedulerSolver(table, options).run();
+        // the stitched roster scored as the monolithic model's objective would score it
+        RosterValidator.Result score = new RosterValidator(table).validate(roster);
+        long objective = SchedulerSolver.objectiveValue(table, score.requestsHonoured(), score.hourSpread(),
+                options.balanceHours());
+        return new Result(roster, windows, requestsHonoured(roster), objective, monolithic);
+    }
+
+    /**
+     * @param worked the shifts of each type each intern worked on the kept days so far
+     * @param carry  the most shifts of a type an intern is carried ahead of or behind their share
+     */
+    private Table window(int start, int end, int[][] worked, int carry, int[] lastShiftDay, Table.Shift[] lastShift) {
+        Table window = new Table(interns, spec.calendar().subCalendar(start, end));
+        spec.applyRules(window);
+        int[] total = new int[Table.Shift.values().length];
+        for (int[] shifts : worked) {
+            Arrays.setAll(total, s -> total[s] + shifts[s]);
+        }
+        long totalFte = Arrays.stream(window.allInterns).map(window::getFte).sum();
+        // on top of the difference, so that nobody is carried with fewer than 0 shifts; in proportion to contract, so
+        // the split hands it straight back
+        int[] base = SchedulerSolver.carryBase(window, carry);
+        for (int i = 0; i < interns.size(); i++) {
+            window.addLeaveDays(i, inWindow(spec.leave().get(i), start, end));
+            window.addRequests(i, inWindow(spec.requests().get(i), start, end));
+            for (Table.Shift shift : Table.Shift.values()) {
+                long share = Math.round((double) total[shift.ordinal()] * window.getFte(i) / totalFte);
+                long difference = Math.max(-carry, Math.min(carry, worked[i][shift.ordinal()] - share));
+                window.addPriorShifts(i, shift, base[i] + (int) difference);
+            }
+            if (lastShiftDay[i] != Integer.MIN_VALUE) {
+                window.setLastShift(i, lastShiftDay[i] - start, lastShift[i]);
+            }
+        }
+        return window;
+    }
+
+    private static int[] inWindow(Collection<Integer> days, int start, int end) {
+        return days.stream().mapToInt(Integer::intValue).filter(d -> d >= start && d < end).map(d -> d - start).toArray();
+    }
+
+    private int requestsHonoured(Roster roster) {
+        return (int) spec.requests().entries().stream().filter(request -> request.getValue() < days).filter(request -> Arrays.stream(Table.Shift.values())
+                .noneMatch(s -> roster.isOn(request.getKey(), request.getValue(), s.ordinal()))).count();
+    }
+}
@@ -0,0 +1,254 @@
+package org.wiles.scheduler;
+
+import com.google.ortools.sat.CpSolver;
+import com.google.ortools.sat.CpSolverResponse;
+import com.google.ortools.sat.Literal;
+import org.wiles.scheduler.Table.Shift;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * A solved roster, detached from the model and immutable, so it can be cached, compared and serialised without
+ * keeping a solver or model alive.
+ * <p>
+ * It is held twice over: the intern on every day and shift, which answers who is on call in O(1), and for every intern
+ * and shift a bitset of the days worked, with the counts worked out once, which answers what an intern works in O(1)
+ * and lets days be compared 64 at a time.
+ */
+public final class Roster {
+
+    private static final int NOBODY = -1;
+    private static final int SHIFTS = Shift.values().length;
+
+    private final int interns;
+    private final int days;
+    // day * SHIFTS + shift ordinal -> intern index, or NOBODY
+    private final int[] assignees;
+    // intern * SHIFTS + shift ordinal -> the days worked, bit d of word d / 64
+    private final long[][] worked;
+    // intern * SHIFTS + shift ordinal -> the number of days worked
+    private final int[] counts;
+
+    /**
+     * A change to one day and shift between two rosters.
+     *
+     * @param before the intern in this roster, or -1
+     * @param after  the intern in the other roster, or -1
+     */
+    public record Change(int day, int shift, int before, int after) {
+    }
+
+    /**
+     * @param interns   the number of interns, including any who work no shift
+     * @param assignees {@code [day][shift ordinal]}, the intern who works it or -1
+     */
+    Roster(int interns, int[][] assignees) {
+        this(interns, assignees.length, Arrays.stream(assignees).flatMapToInt(Arrays::stream).toArray());
+    }
+
+    private Roster(int interns, int days, int[] assignees) {
+        this.interns = interns;
+        this.days = days;
+        this.assignees = assignees;
+        this.worked = new long[interns * SHIFTS][(days + 63) >>> 6];
+        this.counts = new int[interns * SHIFTS];
+        for (int d = 0; d < days; d++) {
+            for (int s = 0; s < SHIFTS; s++) {
+                int intern = assignees[d * SHIFTS + s];
+                if (intern >= 0) {
+                    worked[intern * SHIFTS + s][d >>> 6] |= 1L << d;
+                    counts[intern * SHIFTS + s]++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads the roster out of a finished search, straight from its response.
+     */
+    public static Roster of(Table table, CpSolver solver) {
+        CpSolverResponse response = solver.response();
+        return from(table, cell -> response.getSolution(cell.getIndex()) != 0);
+    }
+
+    /**
+     * Reads the roster from any source of cell values, e.g. a solution callback.
+     */
+    public static Roster from(Table table, Predicate<Literal> isOn) {
+        int[] assignees = new int[table.days * SHIFTS];
+        Arrays.fill(assignees, NOBODY);
+        for (int d : table.allDays) {
+            for (int s : table.allShifts) {
+                for (int i : table.allInterns) {
+                    Literal cell = table.get(i, d, s);
+                    if (cell != null && isOn.test(cell)) {
+                        assignees[d * SHIFTS + s] = i;
+                    }
+                }
+            }
+        }
+        return new Roster(table.getInterns().size(), table.days, assignees);
+    }
+
+    public int days() {
+        return days;
+    }
+
+    public int interns() {
+        return interns;
+    }
+
+    /**
+     * The intern working the shift on the day, or -1 if nobody is (or the shift does not run that day).
+     */
+    public int assignee(int day, int shift) {
+        return assignees[day * SHIFTS + shift];
+    }
+
+    public boolean isOn(int intern, int day, int shift) {
+        return assignees[day * SHIFTS + shift] == intern;
+    }
+
+    /**
+     * Whether the intern works any shift on the day.
+     */
+    public boolean isWorking(int intern, int day) {
+        if (intern < 0 || intern >= interns) {
+            return false;
+        }
+        for (int s = 0; s < SHIFTS; s++) {
+            if ((worked[intern * SHIFTS + s][day >>> 6] & 1L << day) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The days the intern works any shift, bit d of word d / 64.
+     */
+    public long[] workedDays(int intern) {
+        long[] days = new long[(this.days + 63) >>> 6];
+        if (intern < interns) {
+            for (int s = 0; s < SHIFTS; s++) {
+                long[] shiftDays = worked[intern * SHIFTS + s];
+                for (int w = 0; w < days.length; w++) {
+                    days[w] |= shiftDays[w];
+                }
+            }
+        }
+        return days;
+    }
+
+    /**
+     * The days the intern works the shift, bit d of word d / 64.
+     */
+    public long[] workedDays(int intern, Shift shift) {
+        return intern < interns ? worked[intern * SHIFTS + shift.ordinal()].clone() : new long[(days + 63) >>> 6];
+    }
+
+    /**
+     * The bitset behind {@link #workedDays(int, Shift)}, not copied, for callers that only read it.
+     */
+    long[] workedDaysView(int intern, int shift) {
+        return worked[intern * SHIFTS + shift];
+    }
+
+    public int shifts(int intern, Shift shift) {
+        return intern < interns ? counts[intern * SHIFTS + shift.ordinal()] : 0;
+    }
+
+    public int shifts(int intern) {
+        int shifts = 0;
+        for (Shift shift : Shift.values()) {
+            shifts += shifts(intern, shift);
+        }
+        return shifts;
+    }
+
+    public int hours(int intern) {
+        int hours = 0;
+        for (Shift shift : Shift.values()) {
+            hours += shifts(intern, shift) * shift.hours;
+        }
+        return hours;
+    }
+
+    /**
+     * The days and shifts the other roster gives to someone else, over the days both cover.
+     */
+    public List<Change> diff(Roster other) {
+        List<Change> changes = new ArrayList<>();
+        int cells = Math.min(days, other.days) * SHIFTS;
+        for (int c = Arrays.mismatch(assignees, 0, cells, other.assignees, 0, cells); c >= 0 && c < cells; c++) {
+            if (assignees[c] != other.assignees[c]) {
+                changes.add(new Change(c / SHIFTS, c % SHIFTS, assignees[c], other.assignees[c]));
+            }
+        }
+        return changes;
+    }
+
+    /**
+     * The number of days and shifts the other roster gives to someone else, over the days both cover.
+     */
+    public int changes(Roster other) {
+        int changes = 0;
+        int cells = Math.min(days, other.days) * SHIFTS;
+        for (int c = 0; c < cells; c++) {
+            changes += assignees[c] != other.assignees[c] ? 1 : 0;
+        }
+        return changes;
+    }
+
+    /**
+     * The days {@code [fromDay, toDay)} of this roster, renumbered from 0.
+     */
+    public Roster subRoster(int fromDay, int toDay) {
+        return new Roster(interns, toDay - fromDay, Arrays.copyOfRange(assignees, fromDay * SHIFTS, toDay * SHIFTS));
+    }
+
+    /**
+     * The roster as bytes: the number of interns, days and shifts a day, then the intern of every day and shift, one
+     * byte each, 0 for nobody.
+     */
+    public byte[] toBytes() {
+        if (interns > 255) {
+            throw new IllegalStateException("only rosters of up to 255 interns fit a byte per cell");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(12 + assignees.length).putInt(interns).putInt(days).putInt(SHIFTS);
+        for (int assignee : assignees) {
+            buffer.put((byte) (assignee + 1));
+        }
+        return buffer.array();
+    }
+
+    public static Roster fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        int interns = buffer.getInt();
+        int days = buffer.getInt();
+        int shifts = buffer.getInt();
+        if (shifts != SHIFTS) {
+            throw new IllegalArgumentException("roster has " + shifts + " shifts a day, expected " + SHIFTS);
+        }
+        int[] assignees = new int[days * SHIFTS];
+        for (int c = 0; c < assignees.length; c++) {
+            assignees[c] = Byte.toUnsignedInt(buffer.get()) - 1;
+        }
+        return new Roster(interns, days, assignees);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Roster other && interns == other.interns && days == other.days
+                && Arrays.equals(assignees, other.assignees);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * interns + days) + Arrays.hashCode(assignees);
+    }
+}
@@ -0,0 +1,179 @@
+package org.wiles.scheduler;
+
+import com.google.ortools.sat.CpSolver;
+import com.google.ortools.sat.CpSolverStatus;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Runs many rosters (one per department, say) side by side.
+ * <p>
+ * Models are built in parallel on a pool with one thread per core. The CP-SAT searches are then admitted against two
+ * budgets: cores, where a search takes one per worker, and native memory, where a search takes an estimate based on
+ * the size of its model and its number of workers. A search that does not fit waits until enough of the budget is
+ * released, so the machine is kept busy without being oversubscribed. Searches run on a pool with one thread per core
+ * of the budget, so a large batch queues rather than parking a thread per roster. Cancelling a returned future stops
+ * its search, also when the cancel comes just as the search starts, and a job still waiting for budget gives up its
+ * place, so a cancelled job never keeps its budget.
+ */
+public class RosterBatchExecutor implements AutoCloseable {
+
+    /**
+     * Native memory assumed per model element (variable or constraint) per worker. Deliberately pessimistic; pass
+     * a different value to the constructor once there are measurements for your rosters.
+     */
+    public static final long DEFAULT_BYTES_PER_ELEMENT = 16 * 1024;
+
+    private static final long MB = 1024 * 1024;
+    private static final long CANCEL_POLL_MILLIS = 100;
+
+    private final int coreBudget;
+    private final int memoryBudgetMb;
+    private final long bytesPerElement;
+    private final Semaphore cores;
+    private final Semaphore memoryMb;
+    private final ExecutorService buildPool;
+    private final ExecutorService solvePool;
+    private final ScheduledExecutorService cancelPoller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "roster-batch-cancel");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public record BatchResult(String name, SolveResult result, Roster roster) {
+    }
+
+    public RosterBatchExecutor(int coreBudget, int memoryBudgetMb) {
+        this(coreBudget, memoryBudgetMb, DEFAULT_BYTES_PER_ELEMENT);
+    }
+
+    public RosterBatchExecutor(int coreBudget, int memoryBudgetMb, long bytesPerElement) {
+        if (coreBudget < 1 || memoryBudgetMb < 1) {
+            throw new IllegalArgumentException("budgets must be positive");
+        }
+        this.coreBudget = coreBudget;
+        this.memoryBudgetMb = memoryBudgetMb;
+        this.bytesPerElement = bytesPerElement;
+        this.cores = new Semaphore(coreBudget, true);
+        this.memoryMb = new Semaphore(memoryBudgetMb, true);
+        this.buildPool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        // every search takes at least one core, so no more than this many can run at once
+        AtomicInteger solveThreads = new AtomicInteger();
+        this.solvePool = Executors.newFixedThreadPool(coreBudget,
+                runnable -> new Thread(runnable, "roster-batch-solve-" + solveThreads.incrementAndGet()));
+    }
+
+    /**
+     * Queues a roster.
+     *
+     * @param table   builds the table for the roster, called on the build pool
+     * @param options search options; the worker count is capped at the core budget
+     */
+    public CompletableFuture<BatchResult> submit(String name, Supplier<Table> table, SolverOptions options) {
+        CompletableFuture<BatchResult> result = new CompletableFuture<>();
+        AtomicReference<CpSolver> running = new AtomicReference<>();
+        result.whenComplete((r, e) -> {
+            CpSolver solver = running.get();
+            if (result.isCancelled() && solver != null) {
+                solver.stopSearch();
+            }
+        });
+
+        SolverOptions capped = options.toBuilder().workers(Math.min(options.workers(), coreBudget)).build();
+        CompletableFuture.supplyAsync(() -> {
+                    Table built = table.get();
+                    return new Built(built, new SchedulerSolver(built, capped).solve());
+                }, buildPool)
+                .thenAcceptAsync(built -> solve(name, built, capped, result, running), solvePool)
+                .exceptionally(e -> {
+                    result.completeExceptionally(e instanceof CompletionException ? e.getCause() : e);
+                    return null;
+                });
+        return result;
+    }
+
+    private record Built(Table table, CpSolver solver) {
+    }
+
+    private void solve(String name, Built built, SolverOptions options, CompletableFuture<BatchResult> result,
+                       AtomicReference<CpSolver> running) {
+        if (result.isDone()) {
+            return;
+        }
+        int coresNeeded = options.workers();
+        int memoryNeeded = estimateMb(built.table(), options.workers());
+        if (!acquire(cores, coresNeeded, result)) {
+            return;
+        }
+        try {
+            if (!acquire(memoryMb, memoryNeeded, result)) {
+                return;
+            }
+            try {
+                if (result.isDone()) {
+                    return;
+                }
+                CpSolver solver = built.solver();
+                running.set(solver);
+                // stopSearch() does nothing before the search starts, so a cancel that races with the start is only
+                // caught by asking again until the search returns
+                ScheduledFuture<?> poll = cancelPoller.scheduleWithFixedDelay(() -> {
+                    if (result.isCancelled()) {
+                        solver.stopSearch();
+                    }
+                }, 0, CANCEL_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                CpSolverStatus status;
+                try {
+                    status = solver.solve(built.table().getModel());
+                } finally {
+                    poll.cancel(false);
+                }
+                SolveResult solveResult = SolveResult.of(status, built.solver(), options);
+                result.complete(new BatchResult(name, solveResult,
+                        solveResult.hasSolution() ? Roster.of(built.table(), built.solver()) : null));
+            } finally {
+                memoryMb.release(memoryNeeded);
+            }
+        } finally {
+            cores.release(coresNeeded);
+        }
+    }
+
+    /**
+     * Takes the permits, or gives up once the job is done, which while it waits means cancelled; otherwise a cancelled
+     * job would hold its thread until the budget freed up.
+     */
+    private static boolean acquire(Semaphore budget, int permits, CompletableFuture<BatchResult> result) {
+        try {
+            while (!budget.tryAcquire(permits, CANCEL_POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                if (result.isDone()) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.completeExceptionally(e);
+            return false;
+        }
+    }
+
+    /**
+     * Native memory a search is assumed to need, capped at the whole budget so that a large roster still runs (alone).
+     */
+    int estimateMb(Table table, int workers) {
+        var model = table.getModel().getBuilder();
+        long bytes = (model.getVariablesCount() + model.getConstraintsCount()) * bytesPerElement * workers;
+        return (int) Math.min(memoryBudgetMb, Math.max(1, bytes / MB));
+    }
+
+    @Override
+    public void close() {
+        buildPool.shutdown();
+        solvePool.shutdown();
+        cancelPoller.shutdown();
+    }
+}
@@ -0,0 +1,187 @@
+package org.wiles.scheduler;
+
+import org.wiles.scheduler.Table.Shift;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+
+/**
+ * The day type of every day of a horizon, worked out once, and the shifts that run on each day type.
+ * <p>
+ * Immutable, so one calendar can be shared by any number of tables and concurrent builds. As an {@link IntPredicate}
+ * it answers whether a day is a weekend or public holiday, which is what {@link Table} and {@link RosterSpec} used to
+ * be given.
+ */
+public final class RosterCalendar implements IntPredicate {
+
+    public enum DayType {
+        WEEKDAY,
+        WEEKEND,
+        PUBLIC_HOLIDAY
+    }
+
+    private static final DayType[] DAY_TYPES = DayType.values();
+
+    private final LocalDate start;
+    // DayType ordinal of each day
+    private final byte[] dayTypes;
+    private final Map<DayType, Set<Shift>> shifts;
+    private final Map<Integer, String> holidayNames;
+
+    private RosterCalendar(LocalDate start, byte[] dayTypes, Map<DayType, Set<Shift>> shifts, Map<Integer, String> holidayNames) {
+        this.start = start;
+        this.dayTypes = dayTypes;
+        this.shifts = shifts;
+        this.holidayNames = holidayNames;
+    }
+
+    /**
+     * A weekday runs the weekday shift, weekends and public holidays run the weekend call and the short call.
+     */
+    private static Map<DayType, Set<Shift>> defaultShifts() {
+        Map<DayType, Set<Shift>> shifts = new EnumMap<>(DayType.class);
+        shifts.put(DayType.WEEKDAY, Collections.unmodifiableSet(EnumSet.of(Shift.WEEK_DAY)));
+        shifts.put(DayType.WEEKEND, Collections.unmodifiableSet(EnumSet.of(Shift.WEEKEND, Shift.WEEKEND_SHORTCALL)));
+        shifts.put(DayType.PUBLIC_HOLIDAY, shifts.get(DayType.WEEKEND));
+        return Collections.unmodifiableMap(shifts);
+    }
+
+    /**
+     * Weekends only, no public holidays.
+     */
+    public static RosterCalendar of(LocalDate start, int days) {
+        return of(start, days, Map.of());
+    }
+
+    /**
+     * Weekends and the public holidays of the region, e.g. {@code "ZA"}, see {@link PublicHolidays}.
+     */
+    public static RosterCalendar of(LocalDate start, int days, String region) {
+        return of(start, days, PublicHolidays.load(region).between(start, start.plusDays(days - 1L)));
+    }
+
+    private static RosterCalendar of(LocalDate start, int days, Map<LocalDate, String> holidays) {
+        byte[] dayTypes = new byte[days];
+        Map<Integer, String> holidayNames = new HashMap<>();
+        for (int d = 0; d < days; d++) {
+            LocalDate date = start.plusDays(d);
+            DayOfWeek dayOfWeek = date.getDayOfWeek();
+            DayType type = dayOfWeek == DayOfWeek.SATURDAY || dayOfWeek == DayOfWeek.SUNDAY ? DayType.WEEKEND : DayType.WEEKDAY;
+            String holiday = holidays.get(date);
+            if (holiday != null) {
+                type = DayType.PUBLIC_HOLIDAY;
+                holidayNames.put(d, holiday);
+            }
+            dayTypes[d] = (byte) type.ordinal();
+        }
+        return new RosterCalendar(start, dayTypes, defaultShifts(), Map.copyOf(holidayNames));
+    }
+
+    /**
+     * A calendar without dates, from a predicate that is asked once per day; days it accepts are weekends.
+     */
+    public static RosterCalendar of(int days, IntPredicate isWeekEndOrPublicHoliday) {
+        if (isWeekEndOrPublicHoliday instanceof RosterCalendar calendar && calendar.days() == days) {
+            return calendar;
+        }
+        byte[] dayTypes = new byte[days];
+        for (int d = 0; d < days; d++) {
+            dayTypes[d] = (byte) (isWeekEndOrPublicHoliday.test(d) ? DayType.WEEKEND : DayType.WEEKDAY).ordinal();
+        }
+        return new RosterCalendar(null, dayTypes, defaultShifts(), Map.of());
+    }
+
+    /**
+     * The same calendar with a different set of shifts on one day type, e.g. a short call on public holidays only.
+     */
+    public RosterCalendar withShifts(DayType dayType, Shift... dayShifts) {
+        Map<DayType, Set<Shift>> changed = new EnumMap<>(shifts);
+        Set<Shift> set = EnumSet.noneOf(Shift.class);
+        set.addAll(Arrays.asList(dayShifts));
+        changed.put(dayType, Collections.unmodifiableSet(set));
+        return new RosterCalendar(start, dayTypes, Collections.unmodifiableMap(changed), holidayNames);
+    }
+
+    /**
+     * Days {@code [fromDay, toDay)} of this calendar, renumbered from 0.
+     */
+    public RosterCalendar subCalendar(int fromDay, int toDay) {
+        Map<Integer, String> names = new HashMap<>();
+        holidayNames.forEach((day, name) -> {
+            if (day >= fromDay && day < toDay) {
+                names.put(day - fromDay, name);
+            }
+        });
+        return new RosterCalendar(start == null ? null : start.plusDays(fromDay), Arrays.copyOfRange(dayTypes, fromDay, toDay),
+                shifts, Map.copyOf(names));
+    }
+
+    public int days() {
+        return dayTypes.length;
+    }
+
+    /**
+     * The date of day 0, or null for a calendar made from a predicate.
+     */
+    public LocalDate start() {
+        return start;
+    }
+
+    public LocalDate date(int day) {
+        if (start == null) {
+            throw new IllegalStateException("this calendar has no dates");
+        }
+        return start.plusDays(day);
+    }
+
+    public DayType dayType(int day) {
+        return DAY_TYPES[dayTypes[day]];
+    }
+
+    /**
+     * The shifts that run on the day, in ordinal order.
+     */
+    public Set<Shift> shifts(int day) {
+        return shifts.get(dayType(day));
+    }
+
+    public Set<Shift> shifts(DayType dayType) {
+        return shifts.get(dayType);
+    }
+
+    /**
+     * The name of the public holiday on the day, or null.
+     */
+    public String holiday(int day) {
+        return holidayNames.get(day);
+    }
+
+    public boolean isWeekEndOrPublicHoliday(int day) {
+        return dayTypes[day] != DayType.WEEKDAY.ordinal();
+    }
+
+    @Override
+    public boolean test(int day) {
+        return isWeekEndOrPublicHoliday(day);
+    }
+
+    public IntStream days(DayType dayType) {
+        return IntStream.range(0, dayTypes.length).filter(d -> dayTypes[d] == dayType.ordinal());
+    }
+
+    /**
+     * Equal when the day types and shifts are; the dates and holiday names do not change a model.
+     */
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof RosterCalendar other && Arrays.equals(dayTypes, other.dayTypes) && shifts.equals(other.shifts);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(dayTypes) + shifts.hashCode();
+    }
+}
@@ -0,0 +1,334 @@
+package org.wiles.scheduler;
+
+import org.wiles.scheduler.Table.Shift;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Every roster worked so far, kept in one local binary file so that shift and hour balancing can run over the whole
+ * rotation rather than one month at a time.
+ * <p>
+ * The file is a header followed by one byte per intern per day, day by day: {@code 0} for off, otherwise the shift
+ * ordinal plus one. A day is a fixed-size row, so appending a month appends bytes and reading any range is an offset.
+ * The file is memory mapped read-only, so opening years of history copies nothing until it is read. An intern who
+ * joins the rotation is added to the header when their first roster is appended, which rewrites the file once with a
+ * wider row and moves it over the old one.
+ * <pre>
+ * int    magic "RHST"
+ * short  version
+ * short  number of interns
+ * long   epoch day of day 0
+ * int    offset of day 0
+ * per intern: short length, UTF-8 name
+ * per day:    one shift code per intern
+ * </pre>
+ */
+public final class RosterHistory {
+
+    private static final int MAGIC = 0x52485354;
+    private static final short VERSION = 1;
+    private static final byte OFF = 0;
+
+    /**
+     * The most shifts of one type an intern is carried ahead of or behind the others by default.
+     */
+    public static final int MAX_CARRY = 2;
+
+    private final Path path;
+    private final LocalDate start;
+    private List<String> interns;
+    private final Map<String, Integer> internIndex = new HashMap<>();
+    private int dataOffset;
+    private MappedByteBuffer data;
+
+    private RosterHistory(Path path, List<String> interns, LocalDate start, int dataOffset) {
+        this.path = path;
+        this.start = start;
+        setInterns(interns, dataOffset);
+    }
+
+    /**
+     * Creates an empty history for the interns of a rotation, starting on {@code start}, replacing any file there.
+     */
+    public static RosterHistory create(Path path, List<String> interns, LocalDate start) {
+        RosterHistory history = new RosterHistory(path, interns, start, writeHeader(path, interns, start));
+        history.map();
+        return history;
+    }
+
+    /**
+     * Replaces any file at the path with a header for the interns and returns the header's size.
+     */
+    private static int writeHeader(Path path, List<String> interns, LocalDate start) {
+        if (interns.size() > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("a history holds up to " + Short.MAX_VALUE + " interns");
+        }
+        List<byte[]> names = interns.stream().map(name -> name.getBytes(StandardCharsets.UTF_8)).toList();
+        int headerSize = 4 + 2 + 2 + 8 + 4 + names.stream().mapToInt(name -> 2 + name.length).sum();
+        ByteBuffer header = ByteBuffer.allocate(headerSize)
+                .putInt(MAGIC)
+                .putShort(VERSION)
+                .putShort((short) interns.size())
+                .putLong(start.toEpochDay())
+                .putInt(headerSize);
+        names.forEach(name -> header.putShort((short) name.length).put(name));
+        header.flip();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return headerSize;
+    }
+
+    public static RosterHistory open(Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC) {
+                throw new IllegalArgumentException(path + " is not a roster history");
+            }
+            short version = buffer.getShort();
+            if (version != VERSION) {
+                throw new IllegalArgumentException(path + " has version " + version + ", expected " + VERSION);
+            }
+            int count = buffer.getShort();
+            LocalDate start = LocalDate.ofEpochDay(buffer.getLong());
+            int dataOffset = buffer.getInt();
+            List<String> interns = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                byte[] name = new byte[buffer.getShort()];
+                buffer.get(name);
+                interns.add(new String(name, StandardCharsets.UTF_8));
+            }
+            RosterHistory history = new RosterHistory(path, interns, start, dataOffset);
+            history.map();
+            return history;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Adds a solved roster after the last day in the history. Interns of the roster not yet in the history are added to
+     * it first, as off on every earlier day.
+     *
+     * @param rosterInterns the interns of the table the roster was solved for, in the table's order
+     */
+    public void append(List<String> rosterInterns, Roster roster) {
+        List<String> joining = rosterInterns.stream().filter(intern -> !internIndex.containsKey(intern)).distinct()
+                .toList();
+        if (!joining.isEmpty()) {
+            addInterns(joining);
+        }
+        int[] index = rosterInterns.stream().mapToInt(this::indexOf).toArray();
+        ByteBuffer days = ByteBuffer.allocate(roster.days() * interns.size());
+        for (int d = 0; d < roster.days(); d++) {
+            int row = d * interns.size();
+            for (Shift shift : Shift.values()) {
+                int assignee = roster.assignee(d, shift.ordinal());
+                if (assignee >= 0) {
+                    days.put(row + index[assignee], (byte) (shift.ordinal() + 1));
+                }
+            }
+        }
+        write(days);
+        map();
+    }
+
+    /**
+     * Rewrites the file with the interns added to the header and to every row, off on every day so far. The new file is
+     * written next to the old one and moved over it, so a crash leaves one or the other.
+     */
+    private void addInterns(List<String> joining) {
+        int days = days();
+        int stride = interns.size();
+        byte[] rows = new byte[data.capacity()];
+        data.get(0, rows);
+        List<String> widened = new ArrayList<>(interns);
+        widened.addAll(joining);
+        ByteBuffer wider = ByteBuffer.allocate(days * widened.size());
+        for (int d = 0; d < days; d++) {
+            wider.put(d * widened.size(), rows, d * stride, stride);
+        }
+        try {
+            Path temp = Files.createTempFile(path.toAbsolutePath().getParent(), path.getFileName().toString(), ".tmp");
+            try {
+                int headerSize = writeHeader(temp, widened, start);
+                write(temp, wider);
+                Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                setInterns(widened, headerSize);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        map();
+    }
+
+    private void write(ByteBuffer bytes) {
+        write(path, bytes);
+    }
+
+    private static void write(Path path, ByteBuffer bytes) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void setInterns(List<String> interns, int dataOffset) {
+        this.interns = List.copyOf(interns);
+        this.dataOffset = dataOffset;
+        internIndex.clear();
+        for (int i = 0; i < interns.size(); i++) {
+            internIndex.put(interns.get(i), i);
+        }
+    }
+
+    public List<String> interns() {
+        return interns;
+    }
+
+    public LocalDate start() {
+        return start;
+    }
+
+    public int days() {
+        return interns.isEmpty() ? 0 : data.capacity() / interns.size();
+    }
+
+    /**
+     * The shift the intern worked on the day, or null if they were off.
+     */
+    public Shift shift(String intern, int day) {
+        byte code = data.get(day * interns.size() + indexOf(intern));
+        return code == OFF ? null : Shift.values()[code - 1];
+    }
+
+    /**
+     * Shifts of each type the intern worked on days {@code [fromDay, toDay)}, indexed by shift ordinal.
+     */
+    public int[] shifts(String intern, int fromDay, int toDay) {
+        int[] counts = new int[Shift.values().length];
+        int stride = interns.size();
+        for (int at = fromDay * stride + indexOf(intern); at < toDay * stride; at += stride) {
+            byte code = data.get(at);
+            if (code != OFF) {
+                counts[code - 1]++;
+            }
+        }
+        return counts;
+    }
+
+    public int hours(String intern, int fromDay, int toDay) {
+        int[] counts = shifts(intern, fromDay, toDay);
+        return Arrays.stream(Shift.values()).mapToInt(shift -> counts[shift.ordinal()] * shift.hours).sum();
+    }
+
+    /**
+     * Carries the whole history into a table that starts the day after it ends.
+     */
+    public void carryOver(Table table) {
+        carryOver(table, days(), MAX_CARRY);
+    }
+
+    /**
+     * Carries the last {@code days} days of history into a table that starts the day after it ends, each intern at most
+     * {@link #MAX_CARRY} shifts of a type ahead or behind.
+     */
+    public void carryOver(Table table, int days) {
+        carryOver(table, days, MAX_CARRY);
+    }
+
+    /**
+     * Carries the last {@code days} days of history into a table that starts the day after the history ends: the shifts
+     * of each type as prior shifts, which feeds both the shift split and the hour balance, and each intern's last shift
+     * for the rest rules. Set the table's contracts first, the carry depends on them.
+     * <p>
+     * Prior shifts are hard bounds on the split, so an intern can only be asked to make up so much in one table. For
+     * every shift type an intern is carried as the difference from their contract's share of what the table's interns
+     * in the history worked, rounded and capped at {@code maxCarry} either way. Interns new to the rotation count as
+     * being at their share. Only differences matter to the balancing, so everyone also gets a base that keeps the
+     * counts at 0 or more: {@code maxCarry} for the smallest contract and in proportion to contract for the rest, which
+     * the split hands straight back.
+     */
+    public void carryOver(Table table, int days, int maxCarry) {
+        if (maxCarry < 0) {
+            throw new IllegalArgumentException("maxCarry must be 0 or more but was " + maxCarry);
+        }
+        int to = days();
+        int from = Math.max(0, to - days);
+        List<String> tableInterns = table.getInterns();
+        int[][] counts = new int[tableInterns.size()][];
+        int[] total = new int[Shift.values().length];
+        long knownFte = 0;
+        int longestRest = Arrays.stream(Shift.values()).mapToInt(table::getRestDays).max().orElse(0);
+        for (int i = 0; i < tableInterns.size(); i++) {
+            String intern = tableInterns.get(i);
+            if (internIndex.containsKey(intern)) {
+                counts[i] = shifts(intern, from, to);
+                knownFte += table.getFte(i);
+                for (int s = 0; s < total.length; s++) {
+                    total[s] += counts[i][s];
+                }
+            }
+        }
+        int[] base = SchedulerSolver.carryBase(table, maxCarry);
+        for (int i = 0; i < tableInterns.size(); i++) {
+            for (Shift shift : Shift.values()) {
+                long difference = 0;
+                if (counts[i] != null) {
+                    long share = Math.round((double) total[shift.ordinal()] * table.getFte(i) / knownFte);
+                    difference = Math.max(-maxCarry, Math.min(maxCarry, counts[i][shift.ordinal()] - share));
+                }
+                table.addPriorShifts(i, shift, base[i] + (int) difference);
+            }
+            String intern = tableInterns.get(i);
+            if (!internIndex.containsKey(intern)) {
+                continue;
+            }
+            // only a shift still inside its rest window matters
+            for (int d = to - 1; d >= Math.max(from, to - 1 - longestRest); d--) {
+                Shift shift = shift(intern, d);
+                if (shift != null) {
+                    table.setLastShift(i, d - to, shift);
+                    break;
+                }
+            }
+        }
+    }
+
+    private int indexOf(String intern) {
+        Integer index = internIndex.get(intern);
+        if (index == null) {
+            throw new IllegalArgumentException(intern + " is not in the history");
+        }
+        return index;
+    }
+
+    private void map() {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            data = channel.map(FileChannel.MapMode.READ_ONLY, dataOffset, channel.size() - dataOffset);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
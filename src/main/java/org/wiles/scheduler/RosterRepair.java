@@ -0,0 +1,182 @@
+package org.wiles.scheduler;
+
+import com.google.ortools.sat.*;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Repairs a published roster after a change in the middle of the month, e.g. an intern falling sick on day 17, by
+ * solving again only the days and interns around the change. Every cell outside the neighbourhood is fixed to its
+ * value in the current roster, so presolve removes it and the search is small. The neighbourhood starts at the changed
+ * days plus and minus {@code radius} days, and at the affected interns plus everyone who works within those days; it
+ * doubles its days, and takes in the interns working them, until a repair exists, with every intern free once it
+ * spans every open day. Within it the fewest shifts move, then the most requests are honoured.
+ * <p>
+ * The table must describe the situation after the change (add the sick days as leave) and must not have been solved.
+ * The model is built once and only the fixed cells change between attempts.
+ */
+public class RosterRepair {
+
+    private final Table table;
+    private final Roster current;
+    private final SolverOptions options;
+    private int lockedBefore;
+
+    /**
+     * @param changed     the number of days and shifts that moved to someone else
+     * @param interns     the number of interns who gained or lost a shift
+     * @param freeInterns the interns of the neighbourhood the repair was found in; nobody else moved
+     */
+    public record Result(Roster roster, int changed, int interns, int fromDay, int toDay, Set<Integer> freeInterns,
+                         SolveResult solve) {
+    }
+
+    public RosterRepair(Table table, Roster current, SolverOptions options) {
+        if (table.built) {
+            throw new IllegalStateException("the table was solved already; repair needs a fresh table");
+        }
+        this.table = table;
+        this.current = current;
+        // a frozen row no longer matches its signature, so interchangeable interns are not interchangeable here
+        this.options = options.toBuilder().symmetryBreaking(false).build();
+    }
+
+    /**
+     * Days before {@code day} have been worked already; the neighbourhood never reaches back past it.
+     */
+    public RosterRepair lockDaysBefore(int day) {
+        this.lockedBefore = day;
+        return this;
+    }
+
+    /**
+     * Repairs around the changed days, starting with the interns who work them in the current roster.
+     *
+     * @param fromDay first changed day
+     * @param toDay   last changed day, included
+     * @param radius  days either side of the change the repair may use to begin with
+     */
+    public Result repair(int fromDay, int toDay, int radius) {
+        checkDays(fromDay, toDay);
+        return repair(fromDay, toDay, radius, workers(fromDay, toDay));
+    }
+
+    /**
+     * @param fromDay  first changed day
+     * @param toDay    last changed day, included
+     * @param radius   days either side of the change the repair may use to begin with
+     * @param affected interns the change concerns, e.g. whoever fell sick; free from the start
+     */
+    public Result repair(int fromDay, int toDay, int radius, Collection<Integer> affected) {
+        checkDays(fromDay, toDay);
+        table.setPreviousRoster(current, true);
+        CpSolver solver = new SchedulerSolver(table, options).solve();
+        CpModel model = table.getModel();
+        model.clearObjective();
+        // a single moved shift outweighs every request
+        model.minimize(LinearExpr.newBuilder()
+                .addTerm(table.changes, table.maxRequests.getDomain().max() + 1)
+                .addTerm(table.maxRequests, -1));
+
+        int lowest = Math.max(0, lockedBefore);
+        for (int k = Math.max(0, radius); ; k = Math.max(1, 2 * k)) {
+            int from = Math.max(lowest, fromDay - k);
+            int to = Math.min(table.days - 1, toDay + k);
+            boolean widest = from == lowest && to == table.days - 1;
+            Set<Integer> free = new TreeSet<>(affected);
+            if (widest) {
+                for (int i : table.allInterns) {
+                    free.add(i);
+                }
+            } else {
+                free.addAll(workers(from, to));
+            }
+            freezeOutside(from, to, free);
+            CpSolverStatus status = solver.solve(model);
+            if (status == CpSolverStatus.OPTIMAL || status == CpSolverStatus.FEASIBLE) {
+                Roster repaired = Roster.of(table, solver);
+                return new Result(repaired, current.changes(repaired), movedInterns(repaired), from, to,
+                        Set.copyOf(free), SolveResult.of(status, solver, options));
+            }
+            if (status != CpSolverStatus.INFEASIBLE) {
+                throw new IllegalStateException("repair of days " + from + " to " + to + " ended " + status);
+            }
+            if (widest) {
+                throw new IllegalStateException("no repair exists even when every open day and intern may change");
+            }
+        }
+    }
+
+    private void checkDays(int fromDay, int toDay) {
+        if (fromDay > toDay || fromDay < 0 || toDay >= table.days) {
+            throw new IllegalArgumentException("changed days " + fromDay + " to " + toDay + " are not within the "
+                    + table.days + " days of the table");
+        }
+        if (toDay < lockedBefore) {
+            throw new IllegalArgumentException("changed days " + fromDay + " to " + toDay
+                    + " were all worked already; days before " + lockedBefore + " are locked");
+        }
+    }
+
+    /**
+     * The interns who work any of days {@code [from, to]} in the current roster.
+     */
+    private Set<Integer> workers(int from, int to) {
+        Set<Integer> workers = new TreeSet<>();
+        for (int d = from; d <= Math.min(to, current.days() - 1); d++) {
+            for (int s : table.allShifts) {
+                int assignee = current.assignee(d, s);
+                if (assignee >= 0 && assignee < table.getInterns().size()) {
+                    workers.add(assignee);
+                }
+            }
+        }
+        return workers;
+    }
+
+    /**
+     * Fixes every cell outside days {@code [from, to]} or outside the free interns to the current roster and frees the
+     * cells inside both.
+     */
+    private void freezeOutside(int from, int to, Set<Integer> interns) {
+        CpModelProto.Builder proto = table.getModel().getBuilder();
+        for (int d = 0; d < table.days; d++) {
+            for (int s : table.allShifts) {
+                for (int i : table.allInterns) {
+                    BoolVar cell = table.get(i, d, s);
+                    if (cell == null) {
+                        continue;
+                    }
+                    long low = 0;
+                    long high = 1;
+                    if (d < from || d > to || !interns.contains(i)) {
+                        low = high = d < current.days() && current.isOn(i, d, s) ? 1 : 0;
+                    }
+                    proto.getVariablesBuilder(cell.getIndex()).clearDomain().addDomain(low).addDomain(high);
+                }
+            }
+        }
+    }
+
+    /**
+     * The number of interns who gained or lost a shift.
+     */
+    private int movedInterns(Roster repaired) {
+        boolean[] moved = new boolean[table.getInterns().size()];
+        for (Roster.Change change : current.diff(repaired)) {
+            if (change.before() >= 0 && change.before() < moved.length) {
+                moved[change.before()] = true;
+            }
+            if (change.after() >= 0) {
+                moved[change.after()] = true;
+            }
+        }
+        int interns = 0;
+        for (boolean m : moved) {
+            interns += m ? 1 : 0;
+        }
+        return interns;
+    }
+}
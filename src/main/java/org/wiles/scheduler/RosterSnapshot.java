@@ -0,0 +1,17 @@
+package org.wiles.scheduler;
+
+/**
+ * An improving roster found while the search is still running.
+ *
+ * @param solution  1 for the first roster found, 2 for the next improvement and so on
+ * @param wallTime  seconds since the search started
+ */
+public record RosterSnapshot(Roster roster, double objective, double bestBound, double wallTime, int solution) {
+
+    /**
+     * Relative gap between this roster and the best bound proven so far.
+     */
+    public double gap() {
+        return SolveResult.gap(objective, bestBound);
+    }
+}
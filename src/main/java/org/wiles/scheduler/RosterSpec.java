@@ -0,0 +1,194 @@
+package org.wiles.scheduler;
+
+import com.google.common.collect.ImmutableSetMultimap;
+import com.google.common.primitives.Ints;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+/**
+ * Immutable description of a roster: who, on what contracts, over how many days, which of those days are weekends or public holidays,
+ * the rest rules, and everybody's leave and requests. {@link #toTable()} turns it into a fresh {@link Table} to build a model on.
+ */
+public final class RosterSpec {
+
+    /**
+     * What a compiled base model depends on; leave and requests are applied on top of it.
+     */
+    public record Key(List<String> interns, RosterCalendar calendar, int restDays, List<Integer> shiftRestDays, List<Integer> fte) {
+    }
+
+    private final List<String> interns;
+    private final RosterCalendar calendar;
+    private final ImmutableSetMultimap<Integer, Integer> leave;
+    private final ImmutableSetMultimap<Integer, Integer> requests;
+    private final int restDays;
+    // indexed by shift ordinal, 0 where the shift has no rule of its own
+    private final List<Integer> shiftRestDays;
+    // percent of full time per intern
+    private final List<Integer> fte;
+
+    private RosterSpec(List<String> interns, RosterCalendar calendar,
+                       ImmutableSetMultimap<Integer, Integer> leave, ImmutableSetMultimap<Integer, Integer> requests,
+                       int restDays, List<Integer> shiftRestDays, List<Integer> fte) {
+        this.interns = interns;
+        this.calendar = calendar;
+        this.leave = leave;
+        this.requests = requests;
+        this.restDays = restDays;
+        this.shiftRestDays = shiftRestDays;
+        this.fte = fte;
+    }
+
+    public static RosterSpec of(List<String> interns, int days, IntPredicate isWeekEndOrPublicHoliday) {
+        return of(interns, RosterCalendar.of(days, isWeekEndOrPublicHoliday));
+    }
+
+    public static RosterSpec of(List<String> interns, RosterCalendar calendar) {
+        return new RosterSpec(List.copyOf(interns), calendar, ImmutableSetMultimap.of(), ImmutableSetMultimap.of(),
+                1, Collections.nCopies(Table.Shift.values().length, 0), Collections.nCopies(interns.size(), 100));
+    }
+
+    public RosterSpec withLeaveDays(int internIdx, int... dayIndices) {
+        return new RosterSpec(interns, calendar,
+                ImmutableSetMultimap.<Integer, Integer>builder().putAll(leave).putAll(internIdx, Ints.asList(dayIndices)).build(), requests,
+                restDays, shiftRestDays, fte);
+    }
+
+    public RosterSpec withRequests(int internIdx, int... dayIndices) {
+        return new RosterSpec(interns, calendar, leave,
+                ImmutableSetMultimap.<Integer, Integer>builder().putAll(requests).putAll(internIdx, Ints.asList(dayIndices)).build(),
+                restDays, shiftRestDays, fte);
+    }
+
+    /**
+     * The same spec without the given requests of the intern.
+     */
+    public RosterSpec withoutRequests(int internIdx, int... dayIndices) {
+        ImmutableSetMultimap.Builder<Integer, Integer> kept = ImmutableSetMultimap.builder();
+        List<Integer> dropped = Ints.asList(dayIndices);
+        requests.forEach((i, d) -> {
+            if (i != internIdx || !dropped.contains(d)) {
+                kept.put(i, d);
+            }
+        });
+        return new RosterSpec(interns, calendar, leave, kept.build(), restDays, shiftRestDays, fte);
+    }
+
+    /**
+     * The same spec with one more intern, last, who has no leave or requests yet.
+     */
+    public RosterSpec withIntern(String intern) {
+        List<String> more = new ArrayList<>(interns);
+        more.add(intern);
+        List<Integer> contracts = new ArrayList<>(fte);
+        contracts.add(100);
+        return new RosterSpec(List.copyOf(more), calendar, leave, requests, restDays, shiftRestDays, List.copyOf(contracts));
+    }
+
+    /**
+     * The same spec without the intern; the interns after it move up one index, with their leave and requests.
+     */
+    public RosterSpec withoutIntern(int internIdx) {
+        List<String> fewer = new ArrayList<>(interns);
+        fewer.remove(internIdx);
+        List<Integer> contracts = new ArrayList<>(fte);
+        contracts.remove(internIdx);
+        return new RosterSpec(List.copyOf(fewer), calendar, without(leave, internIdx),
+                without(requests, internIdx), restDays, shiftRestDays, List.copyOf(contracts));
+    }
+
+    private static ImmutableSetMultimap<Integer, Integer> without(ImmutableSetMultimap<Integer, Integer> byIntern, int internIdx) {
+        ImmutableSetMultimap.Builder<Integer, Integer> kept = ImmutableSetMultimap.builder();
+        byIntern.forEach((i, d) -> {
+            if (i != internIdx) {
+                kept.put(i > internIdx ? i - 1 : i, d);
+            }
+        });
+        return kept.build();
+    }
+
+    /**
+     * @see Table#setRestDays(int)
+     */
+    public RosterSpec withRestDays(int restDays) {
+        return new RosterSpec(interns, calendar, leave, requests, restDays, shiftRestDays, fte);
+    }
+
+    /**
+     * @see Table#addRestRule(Table.Shift, int)
+     */
+    public RosterSpec withRestRule(Table.Shift shift, int restDays) {
+        List<Integer> rules = new ArrayList<>(shiftRestDays);
+        rules.set(shift.ordinal(), restDays);
+        return new RosterSpec(interns, calendar, leave, requests, this.restDays, List.copyOf(rules), fte);
+    }
+
+    /**
+     * @see Table#setFte(int, int)
+     */
+    public RosterSpec withFte(int internIdx, int percent) {
+        List<Integer> contracts = new ArrayList<>(fte);
+        contracts.set(internIdx, percent);
+        return new RosterSpec(interns, calendar, leave, requests, restDays, shiftRestDays, List.copyOf(contracts));
+    }
+
+    /**
+     * The same interns and calendar without any leave or requests.
+     */
+    public RosterSpec base() {
+        return new RosterSpec(interns, calendar, ImmutableSetMultimap.of(), ImmutableSetMultimap.of(),
+                restDays, shiftRestDays, fte);
+    }
+
+    public Key key() {
+        return new Key(interns, calendar, restDays, shiftRestDays, fte);
+    }
+
+    public List<String> interns() {
+        return interns;
+    }
+
+    public int days() {
+        return calendar.days();
+    }
+
+    public RosterCalendar calendar() {
+        return calendar;
+    }
+
+    public boolean isWeekEndOrPublicHoliday(int day) {
+        return calendar.isWeekEndOrPublicHoliday(day);
+    }
+
+    public ImmutableSetMultimap<Integer, Integer> leave() {
+        return leave;
+    }
+
+    public ImmutableSetMultimap<Integer, Integer> requests() {
+        return requests;
+    }
+
+    /**
+     * A new table for this roster with the leave and requests already added.
+     */
+    public Table toTable() {
+        Table table = new Table(interns, calendar);
+        applyRules(table);
+        leave.asMap().forEach((i, leaveDays) -> table.addLeaveDays(i, Ints.toArray(leaveDays)));
+        requests.asMap().forEach((i, requestDays) -> table.addRequests(i, Ints.toArray(requestDays)));
+        return table;
+    }
+
+    void applyRules(Table table) {
+        table.setRestDays(restDays);
+        for (int i = 0; i < interns.size(); i++) {
+            table.setFte(i, fte.get(i));
+        }
+        for (Table.Shift shift : Table.Shift.values()) {
+            table.addRestRule(shift, shiftRestDays.get(shift.ordinal()));
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package org.wiles.scheduler;
+
+import org.wiles.scheduler.Table.Shift;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Checks a roster against the rules of a table and scores it, in plain Java and without a solver: coverage, leave and
+ * other blocks, rest, and the fewest and most shifts, then the request weight honoured and the hour spread as the
+ * solver's objective has them. Everything the table says is worked out once in the constructor; a check then runs
+ * over each intern's worked days 64 at a time, so it takes microseconds and can score solver output, hand-edited
+ * rosters or the candidates of a heuristic alike.
+ * <p>
+ * The table is only read, so one validator may be shared between threads.
+ */
+public class RosterValidator {
+
+    public enum Kind {
+        /** nobody works a shift that runs */
+        UNCOVERED,
+        /** somebody works a shift that does not run that day */
+        NOT_RUNNING,
+        /** the intern works a day they are on leave or blocked */
+        UNAVAILABLE,
+        /** the intern works again before their rest is over, or twice in a day */
+        REST,
+        /** the intern works more than the most shifts */
+        MAX_SHIFTS,
+        /** the intern works fewer than the fewest shifts */
+        MIN_SHIFTS
+    }
+
+    /**
+     * @param intern the intern, or -1 for an uncovered shift
+     * @param day    the day, or -1 for a violation over the whole roster
+     * @param shift  the shift ordinal, or -1 when no one shift is at fault
+     */
+    public record Violation(Kind kind, int intern, int day, int shift) {
+    }
+
+    /**
+     * @param requestsHonoured the weight of requests honoured, as {@link Table#maxRequests} counts it
+     * @param hourSpread       the most minus the fewest hours over target, as {@link Table#hourSpread} counts it
+     */
+    public record Result(List<Violation> violations, int requestsHonoured, int hourSpread) {
+
+        public boolean isValid() {
+            return violations.isEmpty();
+        }
+    }
+
+    private static final Shift[] SHIFTS = Shift.values();
+
+    private final Table table;
+    private final int interns;
+    private final int days;
+    private final int words;
+    private final int restDays;
+    private final int[] shiftRestDays;
+    // days each intern cannot work, including days still resting from before day 0
+    private final long[][] blocked;
+    private final int[] fewest;
+    private final int[] most;
+    private final int[] hourOffset;
+
+    public RosterValidator(Table table) {
+        this.table = table;
+        this.interns = table.getInterns().size();
+        this.days = table.days;
+        this.words = (days + 63) >>> 6;
+        this.restDays = table.getRestDays();
+        this.shiftRestDays = Arrays.stream(SHIFTS).mapToInt(table::getRestDays).toArray();
+        this.blocked = new long[interns][];
+        this.fewest = new int[interns];
+        this.most = new int[interns];
+        this.hourOffset = new int[interns];
+        int[] targets = SchedulerSolver.hourTargets(table);
+        for (int i = 0; i < interns; i++) {
+            blocked[i] = blockedDays(table, i);
+            int[] bounds = SchedulerSolver.shiftBounds(table, i);
+            fewest[i] = bounds[0] - table.getPriorShifts(i);
+            most[i] = bounds[1] - table.getPriorShifts(i);
+            hourOffset[i] = table.getPriorHours(i) - targets[i];
+        }
+    }
+
+    /**
+     * The days the intern cannot work, bit d of word d / 64: on leave, otherwise blocked, or still resting from the last
+     * shift before day 0.
+     */
+    static long[] blockedDays(Table table, int intern) {
+        long[] blocked = Arrays.copyOf(table.getUnavailable(intern).toLongArray(), (table.days + 63) >>> 6);
+        int lastShiftDay = table.getLastShiftDay(intern);
+        if (lastShiftDay != Integer.MIN_VALUE) {
+            int restingTo = Math.min(table.days - 1, lastShiftDay + table.getRestDays(table.getLastShift(intern)));
+            for (int d = 0; d <= restingTo; d++) {
+                blocked[d >>> 6] |= 1L << d;
+            }
+        }
+        return blocked;
+    }
+
+    public Result validate(Roster roster) {
+        List<Violation> violations = new ArrayList<>();
+        int hourSpread = check(roster, violations, false);
+        return new Result(violations, table.requestScore(roster), hourSpread);
+    }
+
+    /**
+     * Whether the roster breaks no rule; cheaper than {@link #validate(Roster)}, as it stops at the first intern with a
+     * violation and does not score the roster.
+     */
+    public boolean isValid(Roster roster) {
+        List<Violation> violations = new ArrayList<>();
+        check(roster, violations, true);
+        return violations.isEmpty();
+    }
+
+    /**
+     * Adds the violations of the roster to the list and returns its hour spread.
+     */
+    private int check(Roster roster, List<Violation> violations, boolean firstOnly) {
+        if (roster.days() != days) {
+            throw new IllegalArgumentException("roster has " + roster.days() + " days, the table " + days);
+        }
+        for (int d = 0; d < days; d++) {
+            for (int s = 0; s < SHIFTS.length; s++) {
+                int assignee = roster.assignee(d, s);
+                if (table.runs(d, s) && assignee < 0) {
+                    violations.add(new Violation(Kind.UNCOVERED, -1, d, s));
+                } else if (!table.runs(d, s) && assignee >= 0) {
+                    violations.add(new Violation(Kind.NOT_RUNNING, assignee, d, s));
+                }
+            }
+        }
+        if (firstOnly && !violations.isEmpty()) {
+            return 0;
+        }
+
+        long[] worked = new long[words];
+        int highest = Integer.MIN_VALUE;
+        int lowest = Integer.MAX_VALUE;
+        for (int i = 0; i < interns; i++) {
+            Arrays.fill(worked, 0);
+            int shifts = 0;
+            if (i < roster.interns()) {
+                for (int s = 0; s < SHIFTS.length; s++) {
+                    long[] shiftDays = roster.workedDaysView(i, s);
+                    for (int w = 0; w < words; w++) {
+                        if ((worked[w] & shiftDays[w]) != 0) {
+                            addDays(violations, Kind.REST, i, worked[w] & shiftDays[w], w);
+                        }
+                        worked[w] |= shiftDays[w];
+                    }
+                    shifts += roster.shifts(i, SHIFTS[s]);
+                }
+            }
+            for (int w = 0; w < words; w++) {
+                if ((worked[w] & blocked[i][w]) != 0) {
+                    addDays(violations, Kind.UNAVAILABLE, i, worked[w] & blocked[i][w], w);
+                }
+            }
+            // a day worked followed by another one within the rest days
+            for (int k = 1; k <= restDays; k++) {
+                restClash(violations, i, worked, worked, k);
+            }
+            if (i < roster.interns()) {
+                for (int s = 0; s < SHIFTS.length; s++) {
+                    for (int k = restDays + 1; k <= shiftRestDays[s]; k++) {
+                        restClash(violations, i, roster.workedDaysView(i, s), worked, k);
+                    }
+                }
+            }
+            if (shifts < fewest[i]) {
+                violations.add(new Violation(Kind.MIN_SHIFTS, i, -1, -1));
+            }
+            if (shifts > most[i]) {
+                violations.add(new Violation(Kind.MAX_SHIFTS, i, -1, -1));
+            }
+            if (firstOnly && !violations.isEmpty()) {
+                return 0;
+            }
+            int balance = hourOffset[i] + roster.hours(i);
+            highest = Math.max(highest, balance);
+            lowest = Math.min(lowest, balance);
+        }
+        return interns == 0 ? 0 : highest - lowest;
+    }
+
+    /**
+     * Adds a violation on every day {@code d} of {@code first} where day {@code d + k} of {@code then} is worked too.
+     */
+    private void restClash(List<Violation> violations, int intern, long[] first, long[] then, int k) {
+        int wordShift = k >>> 6;
+        int bitShift = k & 63;
+        for (int w = 0; w < words; w++) {
+            // word w of then shifted down by k days
+            long later = w + wordShift < words ? then[w + wordShift] >>> bitShift : 0;
+            if (bitShift != 0 && w + wordShift + 1 < words) {
+                later |= then[w + wordShift + 1] << (64 - bitShift);
+            }
+            if ((first[w] & later) != 0) {
+                addDays(violations, Kind.REST, intern, first[w] & later, w);
+            }
+        }
+    }
+
+    private static void addDays(List<Violation> violations, Kind kind, int intern, long days, int word) {
+        for (long bits = days; bits != 0; bits &= bits - 1) {
+            violations.add(new Violation(kind, intern, (word << 6) + Long.numberOfTrailingZeros(bits), -1));
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package org.wiles.scheduler;
+
+import java.util.function.UnaryOperator;
+
+/**
+ * A named what-if laid over a base {@link RosterSpec}, e.g. "Dr X takes leave on days 10 to 14". Overlays compose in
+ * the order they are added.
+ */
+public record Scenario(String name, UnaryOperator<RosterSpec> overlay) {
+
+    public static Scenario named(String name) {
+        return new Scenario(name, spec -> spec);
+    }
+
+    public Scenario leave(int internIdx, int... days) {
+        return then(spec -> spec.withLeaveDays(internIdx, days));
+    }
+
+    public Scenario requests(int internIdx, int... days) {
+        return then(spec -> spec.withRequests(internIdx, days));
+    }
+
+    public Scenario withoutRequests(int internIdx, int... days) {
+        return then(spec -> spec.withoutRequests(internIdx, days));
+    }
+
+    /**
+     * Adds an intern; unlike leave and requests this changes the model, which is then built again.
+     */
+    public Scenario addIntern(String intern) {
+        return then(spec -> spec.withIntern(intern));
+    }
+
+    /**
+     * Removes an intern; unlike leave and requests this changes the model, which is then built again.
+     */
+    public Scenario removeIntern(int internIdx) {
+        return then(spec -> spec.withoutIntern(internIdx));
+    }
+
+    public RosterSpec apply(RosterSpec base) {
+        return overlay.apply(base);
+    }
+
+    private Scenario then(UnaryOperator<RosterSpec> next) {
+        return new Scenario(name, spec -> next.apply(overlay.apply(spec)));
+    }
+}
@@ -0,0 +1,131 @@
+package org.wiles.scheduler;
+
+import org.wiles.scheduler.Table.Shift;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+/**
+ * Evaluates what-if {@link Scenario}s against a base roster, in parallel, and ranks them.
+ * <p>
+ * Scenarios that only change leave or requests share the base model from the {@link CompiledModelCache}: each one is
+ * a copy of it with its overlay added as constraints. A scenario that adds or removes an intern changes the model
+ * itself, so it is compiled on its own (and cached for the next scenario with the same interns).
+ */
+public class ScenarioRunner {
+
+    private final CompiledModelCache cache;
+    private final SolverOptions options;
+    private final int parallelism;
+
+    /**
+     * @param options     options of each solve; give them a time limit
+     * @param parallelism scenarios solved at the same time; the workers of the options are shared between them
+     */
+    public ScenarioRunner(CompiledModelCache cache, SolverOptions options, int parallelism) {
+        this.cache = cache;
+        this.parallelism = Math.max(1, parallelism);
+        this.options = options.toBuilder().workers(Math.max(1, options.workers() / this.parallelism)).build();
+    }
+
+    /**
+     * @param requestsHonoured the objective: requests honoured, or -1 if there is no roster
+     * @param hourSpread       hours of the intern with the most minus hours of the intern with the fewest
+     * @param changes          shifts that moved to someone else compared with the base roster
+     * @param rebuilt          whether the scenario needed its own model
+     */
+    public record Outcome(String name, RosterSpec spec, SolveResult result, Roster roster,
+                          int requestsHonoured, int hourSpread, int changes, boolean rebuilt) {
+
+        public boolean hasRoster() {
+            return roster != null;
+        }
+    }
+
+    /**
+     * @param ranked best first: a roster before none, then most requests honoured, smallest hour spread, fewest changes
+     */
+    public record Comparison(Outcome base, List<Outcome> ranked) {
+    }
+
+    public static final Comparator<Outcome> RANKING = Comparator.comparing(Outcome::hasRoster).reversed()
+            .thenComparing(Comparator.comparingInt(Outcome::requestsHonoured).reversed())
+            .thenComparingInt(Outcome::hourSpread)
+            .thenComparingInt(Outcome::changes);
+
+    public Comparison run(RosterSpec base, List<Scenario> scenarios) {
+        Outcome baseline = evaluate("base", base, base, null);
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try {
+            List<Future<Outcome>> futures = new ArrayList<>();
+            for (Scenario scenario : scenarios) {
+                futures.add(executor.submit(() -> evaluate(scenario.name(), base, scenario.apply(base), baseline)));
+            }
+            List<Outcome> outcomes = new ArrayList<>();
+            for (Future<Outcome> future : futures) {
+                outcomes.add(future.get());
+            }
+            outcomes.sort(RANKING);
+            return new Comparison(baseline, outcomes);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while evaluating scenarios", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("scenario failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Outcome evaluate(String name, RosterSpec base, RosterSpec spec, Outcome baseline) {
+        CompiledRoster.Solution solution = cache.solve(spec, options);
+        boolean rebuilt = !spec.key().equals(base.key());
+        Roster roster = solution.roster();
+        if (roster == null) {
+            return new Outcome(name, spec, solution.result(), null, -1, 0, 0, rebuilt);
+        }
+        return new Outcome(name, spec, solution.result(), roster, requestsHonoured(spec, roster), hourSpread(spec, roster),
+                baseline == null ? 0 : changes(baseline, spec, roster), rebuilt);
+    }
+
+    private static int requestsHonoured(RosterSpec spec, Roster roster) {
+        return (int) spec.requests().entries().stream()
+                .filter(request -> request.getValue() < roster.days())
+                .filter(request -> !roster.isWorking(request.getKey(), request.getValue()))
+                .count();
+    }
+
+    private static int hourSpread(RosterSpec spec, Roster roster) {
+        int[] hours = IntStream.range(0, spec.interns().size()).map(roster::hours).toArray();
+        return Arrays.stream(hours).max().orElse(0) - Arrays.stream(hours).min().orElse(0);
+    }
+
+    /**
+     * Shifts worked by someone else than in the base roster, matching interns by name since indices move when an
+     * intern is added or removed.
+     */
+    private static int changes(Outcome baseline, RosterSpec spec, Roster roster) {
+        if (!baseline.hasRoster()) {
+            return 0;
+        }
+        int changes = 0;
+        for (int d = 0; d < Math.min(roster.days(), baseline.roster().days()); d++) {
+            for (Shift shift : Shift.values()) {
+                int before = baseline.roster().assignee(d, shift.ordinal());
+                int after = roster.assignee(d, shift.ordinal());
+                String beforeName = before < 0 ? null : baseline.spec().interns().get(before);
+                String afterName = after < 0 ? null : spec.interns().get(after);
+                changes += Objects.equals(beforeName, afterName) ? 0 : 1;
+            }
+        }
+        return changes;
+    }
+}
@@ -0,0 +1,31 @@
+package org.wiles.scheduler;
+
+/**
+ * Where {@link SchedulerSolver} reports how long building the model took and how the search progressed. Plug in an
+ * adapter for whatever metrics system is in use; {@link InMemoryMetrics} keeps everything in memory.
+ */
+public interface SchedulerMetrics {
+
+    SchedulerMetrics NONE = new SchedulerMetrics() {
+        @Override
+        public void phase(String phase, long nanos, long variables, long constraints) {
+        }
+
+        @Override
+        public void progress(double wallTime, double objective, double bestBound, long conflicts, long branches) {
+        }
+    };
+
+    /**
+     * A constraint phase of the model build finished.
+     *
+     * @param variables   variables the phase added
+     * @param constraints constraints the phase added
+     */
+    void phase(String phase, long nanos, long variables, long constraints);
+
+    /**
+     * The search found an improving solution, or finished.
+     */
+    void progress(double wallTime, double objective, double bestBound, long conflicts, long branches);
+}
@@ -1,16 +1,17 @@
 package org.wiles.scheduler;
 
 import com.google.common.collect.Multimap;
+import com.google.common.math.IntMath;
 import com.google.ortools.Loader;
 import com.google.ortools.sat.*;
 import org.wiles.scheduler.Table.Shift;
 
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Arrays;
 import java.util.List;
 import java.util.function.Consumer;
 import java.util.stream.LongStream;
-import java.util.stream.Stream;
 
 import static java.util.stream.IntStream.range;
 
@@ -21,58 +22,185 @@ public class SchedulerSolver {
     }
 
     private final Table table;
+    private final SolverOptions options;
+    private final SchedulerMetrics metrics;
+    private List<int[]> symmetryClasses = List.of();
 
 
     public SchedulerSolver(Table table) {
+        this(table, SolverOptions.defaults());
+    }
+
+    public SchedulerSolver(Table table, SolverOptions options) {
+        this(table, options, SchedulerMetrics.NONE);
+    }
+
+    public SchedulerSolver(Table table, SolverOptions options, SchedulerMetrics metrics) {
         this.table = table;
+        this.options = options;
+        this.metrics = metrics;
+    }
 
+    /**
+     * Builds the model, searches it with the configured options and reports why the search ended.
+     */
+    public SolveResult run() {
+        CpSolver solver = solve();
+        CpSolverStatus status = solver.solve(table.getModel(), new ProgressRecorder(metrics));
+        SolveResult result = SolveResult.of(status, solver, options);
+        CpSolverResponse response = solver.response();
+        ProgressRecorder.record(metrics, result.wallTime(), result.objective(), result.bestBound(),
+                response.getNumConflicts(), response.getNumBranches());
+        return result;
     }
 
 
+    /**
+     * Adds the constraints to the table's model, the first time only, and returns a solver configured with the
+     * options.
+     */
     public CpSolver solve() {
+        if (!table.built) {
+            build();
+            table.built = true;
+        }
+        CpSolver solver = new CpSolver();
+        options.applyTo(solver.getParameters());
+        return solver;
+    }
 
+    private void build() {
+        phase("coverage", this::addCoverage);
 
-        //
+//        addGaps(table);
+        phase("distribute shifts", () -> distributeShifts(table));
+//        table.getModel().addImplication()
 
-        // at most one shift per day per intern
-        table.getWeekDays().mapToObj(x -> table.getDay(x, Shift.WEEK_DAY)).forEach(set -> table.getModel().addExactlyOne(set));
-        table.getWeekEndDays().mapToObj(x -> table.getDay(x, Shift.WEEKEND)).forEach(set -> table.getModel().addExactlyOne(set));
-        table.getWeekEndDays().mapToObj(x -> table.getDay(x, Shift.WEEKEND_SHORTCALL)).forEach(set -> table.getModel().addExactlyOne(set));
+        // not on call twice on the same day, nor again before the rest days are over
+        phase("rest", this::addRest);
 
+        phase("leave", this::addLeave);
 
-        // make sure that onle one intern is on call for one day (and not on call twice on the same day)
-        //noinspection ALL
-        range(0, table.getInterns().size()).forEach(internIndex -> {
-            Arrays.stream(table.getDayRange()).mapToObj(weekendDay ->
-                    table.getInterns(internIndex, weekendDay)
-            ).forEach(elements -> table.getModel().addAtMostOne(elements));
-        });
-//        addGaps(table);
-        distributeShifts(table);
-//        table.getModel().addImplication()
+        phase("shift equalisation", this::addShiftEqualisation);
 
-        prohibitConsecutiveShifts();
+        phase("previous roster", this::addPreviousRoster);
+        phase("requests", this::addRequests);
+        setObjective();
 
-        addLeave();
+        if (options.symmetryBreaking()) {
+            phase("symmetry breaking", () -> {
+                symmetryClasses = SymmetryBreaker.classes(table);
+                SymmetryBreaker.addLexOrdering(table, symmetryClasses);
+                log("\n%d classes of interchangeable interns", symmetryClasses.size());
+            });
+        }
+    }
 
-        addShiftEqualisation();
+    /**
+     * Adds only the rules that hold whatever the interns ask for, coverage and rest, for {@link InfeasibilityDiagnosis}
+     * to add its guarded constraints to.
+     */
+    void buildRules() {
+        phase("coverage", this::addCoverage);
+        phase("rest", this::addRest);
+        table.built = true;
+    }
 
-        CpSolver solver = new CpSolver();
-        addRequests();
-        solver.getParameters().setLinearizationLevel(0);
+    private void addCoverage() {
+        // one intern on each shift that runs, as the calendar has it for the day type
+        ShiftLayout layout = table.getLayout();
+        Shift[] shifts = Shift.values();
+        range(0, layout.slots()).forEach(k ->
+                table.getModel().addExactlyOne(table.getDay(layout.day(k), shifts[layout.shift(k)])));
+    }
 
-        return solver;
+    /**
+     * The fewest and most shifts the intern may end up with, counting the shifts worked before day 0: their share of
+     * all shifts by contract, rounded down and up.
+     */
+    static int[] shiftBounds(Table table, int intern) {
+        // Try to distribute the shifts evenly, so that each nurse works
+        // minShiftsPerNurse shifts. If this is not possible, because the total
+        // number of shifts is not divisible by the number of nurses, some nurses will
+        // be assigned one more shift.
+        // Shifts worked before day 0 count towards the split, so an intern who is ahead gets fewer shifts now.
+        int priorShifts = Arrays.stream(table.allInterns).map(table::getPriorShifts).sum();
+        long totalShifts = table.getNumberOfShifts() + priorShifts;
+        long totalFte = Arrays.stream(table.allInterns).map(table::getFte).sum();
+        long share = totalShifts * table.getFte(intern);
+        return new int[]{(int) (share / totalFte), (int) ((share + totalFte - 1) / totalFte)};
+    }
+
+    /**
+     * The prior shifts of each type every intern is given on top of how far they are carried ahead of or behind their
+     * share, so that nobody is carried below 0. It is {@code carry} for the smallest contract and in proportion to
+     * contract for everyone else, so it adds to the total exactly what {@link #shiftBounds} hands back to each intern.
+     */
+    static int[] carryBase(Table table, int carry) {
+        int unit = Arrays.stream(table.allInterns).map(table::getFte).reduce(0, IntMath::gcd);
+        return Arrays.stream(table.allInterns).map(i -> carry * (table.getFte(i) / unit)).toArray();
+    }
+
+    /**
+     * Every intern's share of all hours, those worked before day 0 included, by contract. An intern's hour balance is
+     * what they worked less their target.
+     */
+    static int[] hourTargets(Table table) {
+        ShiftLayout layout = table.getLayout();
+        int sum = range(0, layout.slots()).map(k -> Shift.values()[layout.shift(k)].hours).sum();
+        int priorSum = Arrays.stream(table.allInterns).map(table::getPriorHours).sum();
+        long totalFte = Arrays.stream(table.allInterns).map(table::getFte).sum();
+        return Arrays.stream(table.allInterns)
+                .map(i -> (int) Math.round((double) (sum + priorSum) * table.getFte(i) / totalFte)).toArray();
+    }
+
+    /**
+     * The classes of interchangeable interns whose rows were ordered, each with at least two members.
+     */
+    public List<int[]> getSymmetryClasses() {
+        return symmetryClasses;
+    }
+
+    /**
+     * Runs one step of the model build, timing it and counting what it added.
+     */
+    private void phase(String name, Runnable step) {
+        CpModelProto.Builder proto = table.getModel().getBuilder();
+        int variables = proto.getVariablesCount();
+        int constraints = proto.getConstraintsCount();
+        ModelPhaseEvent event = new ModelPhaseEvent();
+        long start = System.nanoTime();
+        event.begin();
+        step.run();
+        event.end();
+        long nanos = System.nanoTime() - start;
+        int variablesAdded = proto.getVariablesCount() - variables;
+        int constraintsAdded = proto.getConstraintsCount() - constraints;
+        if (event.shouldCommit()) {
+            event.phase = name;
+            event.variables = variablesAdded;
+            event.constraints = constraintsAdded;
+            event.commit();
+        }
+        metrics.phase(name, nanos, variablesAdded, constraintsAdded);
+        log("\n%s: %d variables, %d constraints in %.1f ms", name, variablesAdded, constraintsAdded, nanos / 1e6);
+    }
+
+    private void log(String format, Object... args) {
+        if (options.logModel()) {
+            System.out.printf(format, args);
+        }
     }
 
+    /**
+     * Tracks every intern's hours against their share of all hours, prior hours included, and the spread between the
+     * most and the fewest hours over target. Each balance gets the tightest domain the shift bounds allow: no fewer
+     * hours than the intern's minimum number of shifts on their shortest available days, no more than their maximum on
+     * their longest ones.
+     */
     private void addShiftEqualisation() {
-        int sum = Stream.of(Shift.values()).mapToInt(shift -> {
-            List<Literal> literals = table.get(0, null, shift);
-            System.out.println("shifts of type " + shift + " = " + literals.size());
-            return literals.size() * shift.hours;
-        }).sum();
-
-        int hoursPerIntern = sum / table.getInterns().size();
-        System.out.println("hours per intern: " + hoursPerIntern);
+        RosterCalendar calendar = table.getCalendar();
+        int[] targets = hourTargets(table);
         CpModel model = table.getModel();
 
         Arrays.stream(table.allInterns).forEach(i -> {
@@ -86,104 +214,263 @@ public class SchedulerSolver {
             integerLinearExprBuilderShiftTriConsumer.accept(Shift.WEEKEND);
             integerLinearExprBuilderShiftTriConsumer.accept(Shift.WEEKEND_SHORTCALL);
 
-            IntVar intVar = model.newIntVar(0, Integer.MAX_VALUE, String.format("%s:%s hours", i, table.getInterns().get(i)));
-            builder.add(-hoursPerIntern);
+            // at most one shift a day, so the bounds come from the shortest and longest shift of each available day
+            int[] shortest = range(0, table.days).filter(d -> table.isAvailable(i, d))
+                    .map(d -> calendar.shifts(d).stream().mapToInt(shift -> shift.hours).min().orElse(0)).sorted().toArray();
+            int[] longest = range(0, table.days).filter(d -> table.isAvailable(i, d))
+                    .map(d -> -calendar.shifts(d).stream().mapToInt(shift -> shift.hours).max().orElse(0)).sorted().map(h -> -h).toArray();
+            int[] bounds = shiftBounds(table, i);
+            int fewest = Math.min(shortest.length, Math.max(0, bounds[0] - table.getPriorShifts(i)));
+            int most = Math.min(longest.length, Math.max(0, bounds[1] - table.getPriorShifts(i)));
+            int lowest = Arrays.stream(shortest, 0, fewest).sum();
+            int highest = Arrays.stream(longest, 0, most).sum();
+
+            // the balance is negative for an intern who is behind their share
+            int target = targets[i];
+            int offset = table.getPriorHours(i) - target;
+            log("\n%s: target %d hours, %d to %d this time", table.getInterns().get(i), target, lowest, highest);
+            IntVar intVar = model.newIntVar(offset + lowest, offset + highest, String.format("%s:%s hours", i, table.getInterns().get(i)));
+            builder.add(offset);
             model.addEquality(intVar, builder);
             table.addHoursTracking(intVar);
-//            model.minimize(builder);
         });
+
+        long lowest = table.getHoursTrackng().stream().mapToLong(balance -> balance.getDomain().min()).min().orElse(0);
+        long highest = table.getHoursTrackng().stream().mapToLong(balance -> balance.getDomain().max()).max().orElse(0);
+        // no roster can bring the spread below the gap between one intern's lowest and another's highest balance
+        long floor = table.getHoursTrackng().stream().mapToLong(balance -> balance.getDomain().min()).max().orElse(0)
+                - table.getHoursTrackng().stream().mapToLong(balance -> balance.getDomain().max()).min().orElse(0);
+        IntVar most = model.newIntVar(lowest, highest, "most hours");
+        IntVar least = model.newIntVar(lowest, highest, "least hours");
+        model.addMaxEquality(most, table.getHoursTrackng());
+        model.addMinEquality(least, table.getHoursTrackng());
+        table.hourSpread = model.newIntVar(Math.max(0, floor), highest - lowest, "hour spread");
+        model.addEquality(table.hourSpread, LinearExpr.newBuilder().add(most).addTerm(least, -1));
     }
 
     /**
-     * adds the requests to the model
+     * Adds the requests to the objective, touching only the cells that were asked about. Each request counts its
+     * weight when honoured; for an intern with a cap, a literal per request picks which honoured requests count.
      */
     private void addRequests() {
         var model = table.getModel();
         LinearExprBuilder obj = LinearExpr.newBuilder();
-        table.maxRequests = model.newIntVar(0, Integer.MAX_VALUE, "max requests");
+        long most = 0;
 
         for (int i : table.allInterns) {
-            for (int d : table.allDays) {
-                LinearExprBuilder dailyShiftExpr = LinearExpr.newBuilder();
-                for (int s : table.allShifts) {
-                    Literal shift = table.shifts[i][d][s];
-                    if (shift != null) {
-                        dailyShiftExpr.addTerm(shift, 1);
-                    }
+            List<Request> requests = table.getRequests().get(i).stream()
+                    .filter(request -> request.fromDay() >= 0 && request.fromDay() < table.days).toList();
+            int cap = table.getRequestCap(i);
+            boolean capped = cap < requests.size();
+            List<Literal> counted = new ArrayList<>();
+            for (Request request : requests) {
+                log("\nadding %s request for iId: %s:%s and days: %d-%d", request.type(), i, table.getInterns().get(i),
+                        request.fromDay(), request.toDay());
+                LinearArgument honoured = honoured(i, request);
+                if (capped) {
+                    BoolVar counts = model.newBoolVar(String.format("%s counts %s", table.getInterns().get(i), request));
+                    model.addLessOrEqual(counts, honoured);
+                    counted.add(counts);
+                    obj.addTerm(counts, request.weight());
+                } else {
+                    obj.addTerm(honoured, request.weight());
                 }
-                LinearExpr inversionExpression = LinearExpr.sum(new LinearArgument[]{LinearExpr.constant(1), LinearExpr.newBuilder().addTerm(dailyShiftExpr, -1)});
-                if (table.getRequestMap().containsEntry(i, d)) {
-                    System.out.printf("\nadding off request for iId: %s:%s and day: %d", i, table.getInterns().get(i), d);
-                    obj.add(inversionExpression);
+            }
+            if (capped) {
+                model.addLessOrEqual(LinearExpr.sum(counted.toArray(new Literal[0])), cap);
+            }
+            most += requests.stream().mapToLong(request -> -request.weight()).sorted().limit(cap).map(weight -> -weight).sum();
+        }
+        table.maxRequests = model.newIntVar(0, most, "max requests");
+        model.addEquality(table.maxRequests, obj);
+    }
+
+    /**
+     * 1 when the intern gets what the request asks for, 0 when not.
+     */
+    private LinearArgument honoured(int intern, Request request) {
+        CpModel model = table.getModel();
+        switch (request.type()) {
+            case SHIFT_WANTED -> {
+                BoolVar cell = table.get(intern, request.fromDay(), request.shift().ordinal());
+                return cell == null ? LinearExpr.constant(0) : cell;
+            }
+            case DAY_OFF -> {
+                // at most one shift a day, so the day is off exactly when the sum is 0
+                Collection<Literal> cells = table.getInterns(intern, request.fromDay());
+                return LinearExpr.newBuilder().add(1).addTerm(LinearExpr.sum(cells.toArray(new Literal[0])), -1).build();
+            }
+            default -> {
+                List<Literal> cells = cells(intern, request.fromDay(), request.toDay());
+                if (cells.isEmpty()) {
+                    return LinearExpr.constant(1);
                 }
+                BoolVar off = model.newBoolVar(String.format("%s off days %d-%d", table.getInterns().get(intern),
+                        request.fromDay(), request.toDay()));
+                model.addBoolAnd(cells.stream().map(Literal::not).toList()).onlyEnforceIf(off);
+                return off;
             }
         }
+    }
 
-        model.addEquality(table.maxRequests, obj);
-        table.getModel().maximize(obj);
+    private void setObjective() {
+        table.getModel().maximize(objective(table, table.maxRequests, options.balanceHours()));
+    }
+
+    /**
+     * The objective of a built table with {@code requests} as the requests honoured, so that a copy of the model can
+     * be solved for other requests against the same objective.
+     */
+    static LinearExpr objective(Table table, LinearArgument requests, boolean balanceHours) {
+        long spreadWeight = spreadWeight(table, balanceHours);
+        LinearExprBuilder objective = LinearExpr.newBuilder();
+        if (table.changes != null) {
+            // a single honoured request outweighs moving every shift in the roster
+            objective.addTerm(requests, (table.getNumberOfShifts() + 1L) * spreadWeight)
+                    .addTerm(table.changes, -spreadWeight);
+        } else {
+            objective.addTerm(requests, spreadWeight);
+        }
+        if (balanceHours) {
+            objective.addTerm(table.hourSpread, -1);
+        }
+        return objective.build();
+    }
+
+    /**
+     * The value {@link #objective} gives a roster of a table without a previous roster, from its score.
+     *
+     * @param requests   the weight of requests honoured, as {@link RosterValidator} counts it
+     * @param hourSpread the hour spread, as {@link RosterValidator} counts it
+     */
+    static long objectiveValue(Table table, long requests, long hourSpread, boolean balanceHours) {
+        return requests * spreadWeight(table, balanceHours) - (balanceHours ? hourSpread : 0);
+    }
+
+    // each term of the objective outweighs everything after it
+    private static long spreadWeight(Table table, boolean balanceHours) {
+        return balanceHours ? table.hourSpread.getDomain().max() + 1 : 1;
+    }
+
+    /**
+     * Hints the previous roster and, if asked for, counts the shifts that move away from the intern who had them.
+     */
+    private void addPreviousRoster() {
+        Roster previous = table.getPreviousRoster();
+        if (previous == null) {
+            return;
+        }
+        CpModel model = table.getModel();
+        LinearExprBuilder moved = LinearExpr.newBuilder();
+        int interns = table.getInterns().size();
+        for (int d = 0; d < Math.min(table.days, previous.days()); d++) {
+            for (int s : table.allShifts) {
+                int assignee = previous.assignee(d, s);
+                for (int i : table.allInterns) {
+                    BoolVar cell = table.get(i, d, s);
+                    if (cell != null) {
+                        model.addHint(cell, assignee == i ? 1 : 0);
+                    }
+                }
+                // every slot has exactly one intern, so a slot moved iff its previous intern is off it; it certainly
+                // moved if they are no longer available and their cell was never created
+                if (assignee >= 0 && assignee < interns && table.runs(d, s)) {
+                    BoolVar cell = table.get(assignee, d, s);
+                    moved.add(1);
+                    if (cell != null) {
+                        moved.addTerm(cell, -1);
+                    }
+                }
+            }
+        }
+        if (table.isMinimiseChanges()) {
+            table.changes = model.newIntVar(0, table.getNumberOfShifts(), "changes");
+            model.addEquality(table.changes, moved);
+        }
     }
 
     private void addLeave() {
+        // unavailable cells were never created; only leave added after the cells were needs a constraint
         Multimap<Integer, Integer> leaveMap = table.getLeaveMap();
-        leaveMap.asMap().forEach((internIdx, days) -> days.stream().map(day -> table.getInterns(internIdx, day)).
-                forEach(shifts -> {
+        leaveMap.asMap().forEach((internIdx, days) -> days.stream().filter(day -> day >= 0 && day < table.days)
+                .map(day -> table.getInterns(internIdx, day)).filter(shifts -> !shifts.isEmpty())
+                .forEach(shifts -> {
                     LinearExprBuilder builder = LinearExpr.newBuilder();
                     builder.addSum(shifts.toArray(new Literal[0]));
-                    System.out.printf("\nadded leave for %s on days %s", table.getInterns().get(internIdx), shifts);
+                    log("\nadded leave for %s on days %s", table.getInterns().get(internIdx), shifts);
                     table.getModel().addEquality(builder, 0);
                 }));
     }
 
-    private void prohibitConsecutiveShifts() {
-        range(0, table.getDayRange().length - 1).forEach(day ->
-                range(0, table.getInterns().size()).forEach(internIndex -> {
-                    Collection<Literal> interns = table.getInterns(internIndex, day);
-
-                    interns.forEach(todayShift -> {
-                        table.getInterns(internIndex, day + 1).forEach(tomorrowShift ->
-                                table.getModel().addImplication(todayShift, tomorrowShift.not()));
-                /*if (day < table.getDayRange().length - 2) {
-                    table.getInterns(internIndex, day + 2).forEach(tomorrowShift -> {
-                        table.getModel().addImplication(todayShift, tomorrowShift.not());
-                    });
-                }*/
-
-                    });
-
-                }));
+    /**
+     * Every intern works at most one shift in any window of {@code restDays + 1} days, one at-most-one constraint per
+     * window; this also covers one shift per day. A shift that needs longer rest adds a window starting with it. That
+     * window can only be an at-most-one when it is exactly one day longer than the base window, otherwise it would
+     * also forbid pairs of later shifts the base rule allows, so longer rests turn the following days off instead.
+     */
+    private void addRest() {
+        CpModel model = table.getModel();
+        int rest = table.getRestDays();
+        int days = table.days;
+        for (int i : table.allInterns) {
+            for (int d = 0; d <= Math.max(0, days - 1 - rest); d++) {
+                model.addAtMostOne(cells(i, d, d + rest));
+            }
+            for (Shift shift : Shift.values()) {
+                int shiftRest = table.getRestDays(shift);
+                if (shiftRest <= rest) {
+                    continue;
+                }
+                for (int d = 0; d < days - 1; d++) {
+                    Literal cell = table.get(i, d, shift.ordinal());
+                    if (cell == null) {
+                        continue;
+                    }
+                    List<Literal> after = cells(i, d + 1, d + shiftRest);
+                    if (shiftRest == rest + 1) {
+                        after.add(cell);
+                        model.addAtMostOne(after);
+                    } else {
+                        model.addBoolAnd(after.stream().map(Literal::not).toList()).onlyEnforceIf(cell);
+                    }
+                }
+            }
+            // still resting from a shift worked before day 0
+            int lastShiftDay = table.getLastShiftDay(i);
+            if (lastShiftDay != Integer.MIN_VALUE) {
+                List<Literal> resting = cells(i, 0, lastShiftDay + table.getRestDays(table.getLastShift(i)));
+                if (!resting.isEmpty()) {
+                    model.addBoolAnd(resting.stream().map(Literal::not).toList());
+                }
+            }
+        }
     }
 
-
-    private void distributeShifts(Table table) {
-        // Try to distribute the shifts evenly, so that each nurse works
-        // minShiftsPerNurse shifts. If this is not possible, because the total
-        // number of shifts is not divisible by the number of nurses, some nurses will
-        // be assigned one more shift.
-        int minShiftsPerNurse = table.getNumberOfShifts() / table.getInterns().size();
-        int maxShiftsPerNurse;
-        if (table.getNumberOfShifts() % table.getInterns().size() == 0) {
-            maxShiftsPerNurse = minShiftsPerNurse;
-        } else {
-            maxShiftsPerNurse = minShiftsPerNurse + 1;
+    /**
+     * The cells of the intern from {@code fromDay} to {@code toDay}, both included and clipped to the horizon.
+     */
+    private List<Literal> cells(int intern, int fromDay, int toDay) {
+        List<Literal> cells = new ArrayList<>();
+        for (int d = Math.max(0, fromDay); d <= Math.min(table.days - 1, toDay); d++) {
+            cells.addAll(table.getInterns(intern, d));
         }
-        System.out.printf("min = %s", minShiftsPerNurse);
-        System.out.printf("max = %s", maxShiftsPerNurse);
+        return cells;
+    }
 
 
+    private void distributeShifts(Table table) {
         List<LinearExprBuilder> list = range(0, table.getInterns().size()).mapToObj(internIndex -> {
             LinearExprBuilder builder = LinearExpr.newBuilder();
             table.getInterns(internIndex).forEach(builder::add);
+            builder.add(table.getPriorShifts(internIndex));
             return builder;
         }).toList();
 
-        list.forEach(builder -> table.getModel().addLinearConstraint(builder, minShiftsPerNurse, maxShiftsPerNurse));
-
-        IntVar minShifts = table.getModel().newIntVar(0, maxShiftsPerNurse, "minShiftsPerIntern");
-        LinearArgument[] array = list.stream().map(LinearExprBuilder::build).toArray(LinearArgument[]::new);
-        table.getModel().addMinEquality(minShifts, array);
-        table.getModel().maximize(minShifts);
-
-
+        range(0, list.size()).forEach(i -> {
+            int[] bounds = shiftBounds(table, i);
+            log("\n%s: %d to %d shifts", table.getInterns().get(i), bounds[0], bounds[1]);
+            table.getModel().addLinearConstraint(list.get(i), bounds[0], bounds[1]);
+        });
     }
 
 }
@@ -0,0 +1,73 @@
+package org.wiles.scheduler;
+
+import org.wiles.scheduler.RosterCalendar.DayType;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The kinds of call a hospital runs, in a fixed order; a shift is identified by its index in the catalog. The
+ * catalog only describes the calls, the {@link RosterCalendar} says which type each day is.
+ * <p>
+ * The BoolVar {@link Table} only runs the catalog of {@link Table.Shift}, see {@link #of(RosterCalendar)}; a catalog
+ * of other calls, or of calls that need more than one intern, is solved by the IntVar formulation.
+ */
+public final class ShiftCatalog {
+
+    private final List<ShiftType> types;
+
+    private ShiftCatalog(List<ShiftType> types) {
+        this.types = types;
+    }
+
+    public static ShiftCatalog of(ShiftType... types) {
+        return new ShiftCatalog(List.of(types));
+    }
+
+    public static ShiftCatalog of(List<ShiftType> types) {
+        return new ShiftCatalog(List.copyOf(types));
+    }
+
+    /**
+     * The three calls of {@link Table.Shift}, one intern each, on the day types the calendar runs them on. Its
+     * indices are the shifts' ordinals.
+     */
+    public static ShiftCatalog of(RosterCalendar calendar) {
+        return new ShiftCatalog(Arrays.stream(Table.Shift.values()).map(shift -> {
+            Set<DayType> dayTypes = EnumSet.noneOf(DayType.class);
+            for (DayType dayType : DayType.values()) {
+                if (calendar.shifts(dayType).contains(shift)) {
+                    dayTypes.add(dayType);
+                }
+            }
+            return new ShiftType(shift.name(), shift.hours, 1, dayTypes);
+        }).toList());
+    }
+
+    public int size() {
+        return types.size();
+    }
+
+    public ShiftType get(int shift) {
+        return types.get(shift);
+    }
+
+    public List<ShiftType> types() {
+        return types;
+    }
+
+    public int indexOf(String name) {
+        for (int s = 0; s < types.size(); s++) {
+            if (types.get(s).name().equals(name)) {
+                return s;
+            }
+        }
+        throw new IllegalArgumentException("no shift called " + name);
+    }
+
+    public boolean runsOn(int shift, DayType dayType) {
+        return types.get(shift).dayTypes().contains(dayType);
+    }
+}
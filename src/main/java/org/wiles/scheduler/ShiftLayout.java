@@ -0,0 +1,138 @@
+package org.wiles.scheduler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * The sparse layout of a roster's cells: one slot per (day, shift) that actually runs, and one cell per intern per
+ * slot, so a formulation only allocates variables for cells that can be worked. Slots are ordered by day and then
+ * shift, which makes the cells of a day and of a day+shift contiguous; the cell of intern i in slot k is
+ * {@code k * interns + i}, and the cells of an intern are found with a stride of {@code interns}.
+ * <p>
+ * Immutable; the BoolVar {@link Table} and the IntVar {@code TableIntVars} both lay out their variables with it. The
+ * Table only ever uses {@link ShiftCatalog#of(RosterCalendar)}; any other catalog is for {@code TableIntVars}.
+ */
+public final class ShiftLayout {
+
+    /**
+     * Creates the variable of one cell.
+     */
+    @FunctionalInterface
+    public interface CellFactory<V> {
+        V create(int intern, int day, int shift);
+    }
+
+    private final RosterCalendar calendar;
+    private final ShiftCatalog catalog;
+    // slot index of (day, shift), or -1 when the shift does not run on that day
+    private final int[][] slotOf;
+    // slots of day d are [daySlots[d], daySlots[d + 1])
+    private final int[] daySlots;
+    private final int[] slotShift;
+    private final int[] slotDay;
+
+    private ShiftLayout(RosterCalendar calendar, ShiftCatalog catalog) {
+        this.calendar = calendar;
+        this.catalog = catalog;
+        int days = calendar.days();
+        this.slotOf = new int[days][catalog.size()];
+        this.daySlots = new int[days + 1];
+        List<int[]> slots = new ArrayList<>();
+        for (int d = 0; d < days; d++) {
+            Arrays.fill(slotOf[d], -1);
+            daySlots[d] = slots.size();
+            for (int s = 0; s < catalog.size(); s++) {
+                if (catalog.runsOn(s, calendar.dayType(d))) {
+                    slotOf[d][s] = slots.size();
+                    slots.add(new int[]{d, s});
+                }
+            }
+        }
+        daySlots[days] = slots.size();
+        this.slotDay = slots.stream().mapToInt(slot -> slot[0]).toArray();
+        this.slotShift = slots.stream().mapToInt(slot -> slot[1]).toArray();
+    }
+
+    public static ShiftLayout of(RosterCalendar calendar, ShiftCatalog catalog) {
+        return new ShiftLayout(calendar, catalog);
+    }
+
+    /**
+     * Allocates a variable for every cell in layout order.
+     */
+    public <V> V[] allocate(int interns, IntFunction<V[]> newArray, CellFactory<V> factory) {
+        V[] cells = newArray.apply(slots() * interns);
+        for (int k = 0; k < slots(); k++) {
+            for (int i = 0; i < interns; i++) {
+                cells[k * interns + i] = factory.create(i, slotDay[k], slotShift[k]);
+            }
+        }
+        return cells;
+    }
+
+    public RosterCalendar calendar() {
+        return calendar;
+    }
+
+    public ShiftCatalog catalog() {
+        return catalog;
+    }
+
+    public int days() {
+        return calendar.days();
+    }
+
+    public int slots() {
+        return slotShift.length;
+    }
+
+    /**
+     * The slot of the shift on the day, or -1 when it does not run that day.
+     */
+    public int slot(int day, int shift) {
+        return slotOf[day][shift];
+    }
+
+    public int firstSlot(int day) {
+        return daySlots[day];
+    }
+
+    /**
+     * One past the last slot of the day.
+     */
+    public int endSlot(int day) {
+        return daySlots[day + 1];
+    }
+
+    public int day(int slot) {
+        return slotDay[slot];
+    }
+
+    public int shift(int slot) {
+        return slotShift[slot];
+    }
+
+    public int headcount(int slot) {
+        return catalog.get(slotShift[slot]).headcount();
+    }
+
+    /**
+     * Interns needed on the day.
+     */
+    public int requiredShifts(int day) {
+        int required = 0;
+        for (int k = daySlots[day]; k < daySlots[day + 1]; k++) {
+            required += headcount(k);
+        }
+        return required;
+    }
+
+    /**
+     * Interns needed over the whole horizon.
+     */
+    public int requiredShifts() {
+        return Arrays.stream(slotShift).map(s -> catalog.get(s).headcount()).sum();
+    }
+}
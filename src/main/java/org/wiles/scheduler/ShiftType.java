@@ -0,0 +1,25 @@
+package org.wiles.scheduler;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * One kind of call in a {@link ShiftCatalog}.
+ *
+ * @param headcount interns needed on the shift each day it runs
+ * @param dayTypes  the day types the shift runs on
+ */
+public record ShiftType(String name, int hours, int headcount, Set<RosterCalendar.DayType> dayTypes) {
+
+    public ShiftType {
+        if (hours < 0 || headcount < 1) {
+            throw new IllegalArgumentException(name + " needs non-negative hours and at least one intern");
+        }
+        dayTypes = Collections.unmodifiableSet(dayTypes.isEmpty() ? EnumSet.noneOf(RosterCalendar.DayType.class) : EnumSet.copyOf(dayTypes));
+    }
+
+    public static ShiftType of(String name, int hours, int headcount, RosterCalendar.DayType... dayTypes) {
+        return new ShiftType(name, hours, headcount, Set.of(dayTypes));
+    }
+}
@@ -0,0 +1,85 @@
+package org.wiles.scheduler;
+
+import com.google.ortools.sat.CpSolver;
+import com.google.ortools.sat.CpSolverResponse;
+import com.google.ortools.sat.CpSolverStatus;
+
+/**
+ * Outcome of one CP-SAT search: the status, where the objective ended up and what stopped the search.
+ */
+public record SolveResult(CpSolverStatus status,
+                          double objective,
+                          double bestBound,
+                          double wallTime,
+                          double deterministicTime,
+                          int workers,
+                          StopReason stopReason) {
+
+    public enum StopReason {
+        /** optimality was proven */
+        OPTIMAL,
+        /** the model has no solution */
+        INFEASIBLE,
+        /** the relative gap limit was reached before optimality was proven */
+        GAP_LIMIT,
+        /** the wall-clock limit ran out */
+        TIME_LIMIT,
+        /** the deterministic time limit ran out */
+        DETERMINISTIC_TIME_LIMIT,
+        /** the search was stopped from outside, e.g. by {@link CpSolver#stopSearch()} */
+        INTERRUPTED,
+        /** the {@link StopPolicy} of an {@link AnytimeSolver} was satisfied */
+        STOP_POLICY,
+        MODEL_INVALID
+    }
+
+    // CP-SAT stops a little past its limits, never meaningfully before them
+    private static final double LIMIT_TOLERANCE = 0.99;
+
+    static SolveResult of(CpSolverStatus status, CpSolver solver, SolverOptions options) {
+        CpSolverResponse response = solver.response();
+        return new SolveResult(status, response.getObjectiveValue(), response.getBestObjectiveBound(),
+                response.getWallTime(), response.getDeterministicTime(), options.workers(),
+                stopReason(status, response, options));
+    }
+
+    private static StopReason stopReason(CpSolverStatus status, CpSolverResponse response, SolverOptions options) {
+        return switch (status) {
+            case OPTIMAL -> options.relativeGapLimit() > 0 && gap(response.getObjectiveValue(), response.getBestObjectiveBound()) > 0
+                    ? StopReason.GAP_LIMIT : StopReason.OPTIMAL;
+            case INFEASIBLE -> StopReason.INFEASIBLE;
+            case MODEL_INVALID -> StopReason.MODEL_INVALID;
+            default -> {
+                if (options.maxDeterministicTime() > 0 && response.getDeterministicTime() >= options.maxDeterministicTime() * LIMIT_TOLERANCE) {
+                    yield StopReason.DETERMINISTIC_TIME_LIMIT;
+                }
+                if (options.maxTimeSeconds() > 0 && response.getWallTime() >= options.maxTimeSeconds() * LIMIT_TOLERANCE) {
+                    yield StopReason.TIME_LIMIT;
+                }
+                yield StopReason.INTERRUPTED;
+            }
+        };
+    }
+
+    SolveResult withStopReason(StopReason stopReason) {
+        return new SolveResult(status, objective, bestBound, wallTime, deterministicTime, workers, stopReason);
+    }
+
+    /**
+     * Relative gap between objective and bound, {@code 0} when optimality is proven.
+     */
+    public double gap() {
+        return gap(objective, bestBound);
+    }
+
+    /**
+     * Relative gap between an objective and a bound, as every report of a search gives it.
+     */
+    static double gap(double objective, double bound) {
+        return Math.abs(objective - bound) / Math.max(1, Math.abs(objective));
+    }
+
+    public boolean hasSolution() {
+        return status == CpSolverStatus.OPTIMAL || status == CpSolverStatus.FEASIBLE;
+    }
+}
@@ -0,0 +1,173 @@
+package org.wiles.scheduler;
+
+import com.google.ortools.sat.SatParameters;
+
+/**
+ * Search settings handed to {@link SchedulerSolver}. A limit of {@code 0} means "no limit".
+ *
+ * @param workers              number of CP-SAT workers in the portfolio, {@link #defaults()} uses one per core
+ * @param maxTimeSeconds       wall-clock limit on the search
+ * @param maxDeterministicTime limit in CP-SAT's deterministic time units, reproducible across machines and loads
+ * @param randomSeed           seed for the search
+ * @param relativeGapLimit     stop once {@code |objective - bound| / |objective|} is at or below this
+ * @param deterministic        interleave the portfolio on one thread so that repeated runs give the same roster
+ * @param linearizationLevel   CP-SAT linearization level, {@code 0} as the solver has always used
+ * @param logSearch            print the CP-SAT search log to stdout
+ * @param logModel             print what is added to the model while it is built to stdout
+ * @param symmetryBreaking     order the rows of interchangeable interns, see {@link SymmetryBreaker}; turn it off for
+ *                             models that get constraints on individual interns after they are built
+ * @param balanceHours         also minimise the hour spread in a single solve, after requests and changes; proving
+ *                             the spread optimal takes far longer than the rest, so give the search a limit
+ */
+public record SolverOptions(int workers,
+                            double maxTimeSeconds,
+                            double maxDeterministicTime,
+                            int randomSeed,
+                            double relativeGapLimit,
+                            boolean deterministic,
+                            int linearizationLevel,
+                            boolean logSearch,
+                            boolean logModel,
+                            boolean symmetryBreaking,
+                            boolean balanceHours) {
+
+    public SolverOptions {
+        if (workers < 1) {
+            throw new IllegalArgumentException("workers must be at least 1 but was " + workers);
+        }
+        if (maxTimeSeconds < 0 || maxDeterministicTime < 0 || relativeGapLimit < 0) {
+            throw new IllegalArgumentException("limits must not be negative");
+        }
+    }
+
+    /**
+     * A portfolio sized to the available cores with no limits.
+     */
+    public static SolverOptions defaults() {
+        return builder().build();
+    }
+
+    /**
+     * Starts from {@link #defaults()}.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Starts from these options, to change a few of them.
+     */
+    public Builder toBuilder() {
+        Builder builder = new Builder();
+        builder.workers = workers;
+        builder.maxTimeSeconds = maxTimeSeconds;
+        builder.maxDeterministicTime = maxDeterministicTime;
+        builder.randomSeed = randomSeed;
+        builder.relativeGapLimit = relativeGapLimit;
+        builder.deterministic = deterministic;
+        builder.linearizationLevel = linearizationLevel;
+        builder.logSearch = logSearch;
+        builder.logModel = logModel;
+        builder.symmetryBreaking = symmetryBreaking;
+        builder.balanceHours = balanceHours;
+        return builder;
+    }
+
+    public void applyTo(SatParameters.Builder parameters) {
+        parameters.setNumWorkers(workers);
+        parameters.setInterleaveSearch(deterministic);
+        parameters.setRandomSeed(randomSeed);
+        parameters.setLinearizationLevel(linearizationLevel);
+        parameters.setLogSearchProgress(logSearch);
+        if (maxTimeSeconds > 0) {
+            parameters.setMaxTimeInSeconds(maxTimeSeconds);
+        }
+        if (maxDeterministicTime > 0) {
+            parameters.setMaxDeterministicTime(maxDeterministicTime);
+        }
+        if (relativeGapLimit > 0) {
+            parameters.setRelativeGapLimit(relativeGapLimit);
+        }
+    }
+
+    /**
+     * Settings that are not set keep the value they started from; {@link #build()} checks them.
+     */
+    public static final class Builder {
+
+        private int workers = Runtime.getRuntime().availableProcessors();
+        private double maxTimeSeconds;
+        private double maxDeterministicTime;
+        private int randomSeed;
+        private double relativeGapLimit;
+        private boolean deterministic;
+        private int linearizationLevel;
+        private boolean logSearch;
+        private boolean logModel;
+        private boolean symmetryBreaking = true;
+        private boolean balanceHours;
+
+        private Builder() {
+        }
+
+        public Builder workers(int workers) {
+            this.workers = workers;
+            return this;
+        }
+
+        public Builder maxTimeSeconds(double maxTimeSeconds) {
+            this.maxTimeSeconds = maxTimeSeconds;
+            return this;
+        }
+
+        public Builder maxDeterministicTime(double maxDeterministicTime) {
+            this.maxDeterministicTime = maxDeterministicTime;
+            return this;
+        }
+
+        public Builder randomSeed(int randomSeed) {
+            this.randomSeed = randomSeed;
+            return this;
+        }
+
+        public Builder relativeGapLimit(double relativeGapLimit) {
+            this.relativeGapLimit = relativeGapLimit;
+            return this;
+        }
+
+        public Builder deterministic(boolean deterministic) {
+            this.deterministic = deterministic;
+            return this;
+        }
+
+        public Builder linearizationLevel(int linearizationLevel) {
+            this.linearizationLevel = linearizationLevel;
+            return this;
+        }
+
+        public Builder logSearch(boolean logSearch) {
+            this.logSearch = logSearch;
+            return this;
+        }
+
+        public Builder logModel(boolean logModel) {
+            this.logModel = logModel;
+            return this;
+        }
+
+        public Builder symmetryBreaking(boolean symmetryBreaking) {
+            this.symmetryBreaking = symmetryBreaking;
+            return this;
+        }
+
+        public Builder balanceHours(boolean balanceHours) {
+            this.balanceHours = balanceHours;
+            return this;
+        }
+
+        public SolverOptions build() {
+            return new SolverOptions(workers, maxTimeSeconds, maxDeterministicTime, randomSeed, relativeGapLimit,
+                    deterministic, linearizationLevel, logSearch, logModel, symmetryBreaking, balanceHours);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package org.wiles.scheduler;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A point in a CP-SAT search: emitted for every improving solution and once when the search ends.
+ */
+@Name("org.wiles.scheduler.SolverProgress")
+@Label("Solver Progress")
+@Category("Scheduler")
+@Description("Objective, bound and search statistics of a running CP-SAT search")
+class SolverProgressEvent extends jdk.jfr.Event {
+
+    @Label("Wall Time (s)")
+    double wallTime;
+
+    @Label("Objective")
+    double objective;
+
+    @Label("Best Bound")
+    double bestBound;
+
+    @Label("Relative Gap")
+    double gap;
+
+    @Label("Conflicts")
+    long conflicts;
+
+    @Label("Branches")
+    long branches;
+}
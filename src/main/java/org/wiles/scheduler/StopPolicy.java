@@ -0,0 +1,48 @@
+package org.wiles.scheduler;
+
+import java.time.Duration;
+
+/**
+ * Decides when an {@link AnytimeSolver} has a good enough roster. It is asked after every improving roster and again
+ * every {@link AnytimeSolver#TICK_MILLIS} ms while the search runs.
+ */
+@FunctionalInterface
+public interface StopPolicy {
+
+    /**
+     * @param best                     the best roster so far, or null if none was found yet
+     * @param secondsSinceImprovement  seconds since {@code best} was found, or since the start if there is none
+     */
+    boolean shouldStop(RosterSnapshot best, double secondsSinceImprovement);
+
+    /**
+     * Never stops early; the search runs until it proves optimality or hits a limit of its {@link SolverOptions}.
+     */
+    static StopPolicy never() {
+        return (best, secondsSinceImprovement) -> false;
+    }
+
+    static StopPolicy firstFeasible() {
+        return (best, secondsSinceImprovement) -> best != null;
+    }
+
+    /**
+     * @param gap relative gap, e.g. {@code 0.05} for 5%
+     */
+    static StopPolicy gapBelow(double gap) {
+        return (best, secondsSinceImprovement) -> best != null && best.gap() <= gap;
+    }
+
+    /**
+     * Stops once there is a roster and nothing better has been found for {@code duration}.
+     */
+    static StopPolicy noImprovementFor(Duration duration) {
+        double seconds = duration.toNanos() / 1e9;
+        return (best, secondsSinceImprovement) -> best != null && secondsSinceImprovement >= seconds;
+    }
+
+    default StopPolicy or(StopPolicy other) {
+        return (best, secondsSinceImprovement) -> shouldStop(best, secondsSinceImprovement)
+                || other.shouldStop(best, secondsSinceImprovement);
+    }
+}
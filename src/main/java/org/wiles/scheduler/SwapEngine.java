@@ -0,0 +1,337 @@
+package org.wiles.scheduler;
+
+import org.wiles.scheduler.Table.Shift;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Answers swap questions on a published roster without solving again: whether one intern may give a shift away or two
+ * interns may trade, and who could take a shift, ranked by what it does to the hour balance.
+ * <p>
+ * Each intern's days worked per shift, blocked days, shift count and hour balance are indexed once. A check then only
+ * looks at the words of the bitsets around the days involved, so it is independent of the length of the roster, and
+ * ranking every intern for a shift takes microseconds. An accepted swap updates the indexes in place.
+ * <p>
+ * Only the rules a swap can break are checked: leave and other blocks, rest, and the fewest and most shifts. Requests
+ * are the interns' own business when they trade.
+ */
+public class SwapEngine {
+
+    public enum Reason {
+        /** the intern giving the shift away does not work it, or the day, shift or an intern is out of range */
+        NOT_ASSIGNED,
+        /** the intern taking the shift is on leave or blocked that day */
+        UNAVAILABLE,
+        /** the intern taking the shift would not get their rest */
+        REST,
+        /** the intern taking the shift would work more than the most shifts */
+        MAX_SHIFTS,
+        /** the intern giving the shift away would work fewer than the fewest shifts */
+        MIN_SHIFTS
+    }
+
+    /**
+     * @param reasons    empty when the swap may go ahead
+     * @param hourSpread the most minus the fewest hours over target once the swap is made
+     */
+    public record Verdict(Set<Reason> reasons, int hourSpread) {
+
+        public boolean isFeasible() {
+            return reasons.isEmpty();
+        }
+    }
+
+    /**
+     * @param balance    the intern's hours over target once they take the shift
+     * @param hourSpread the most minus the fewest hours over target once they take the shift
+     */
+    public record Candidate(int intern, int balance, int hourSpread) {
+    }
+
+    private static final Shift[] SHIFTS = Shift.values();
+
+    private final int interns;
+    private final int days;
+    private final int restDays;
+    private final int[] shiftRestDays;
+    private final int[][] assignees;
+    // intern * SHIFTS + shift ordinal -> the days worked, bit d of word d / 64
+    private final long[][] worked;
+    private final long[][] blocked;
+    private final int[] shifts;
+    private final int[] fewest;
+    private final int[] most;
+    private final int[] balance;
+    // interns by ascending balance
+    private int[] byBalance;
+
+    public SwapEngine(Table table, Roster roster) {
+        if (roster.days() != table.days) {
+            throw new IllegalArgumentException("roster has " + roster.days() + " days, the table " + table.days);
+        }
+        this.interns = table.getInterns().size();
+        this.days = table.days;
+        this.restDays = table.getRestDays();
+        this.shiftRestDays = IntStream.range(0, SHIFTS.length).map(s -> table.getRestDays(SHIFTS[s])).toArray();
+        int words = (days + 63) >>> 6;
+        this.assignees = new int[days][SHIFTS.length];
+        this.worked = new long[interns * SHIFTS.length][words];
+        this.blocked = new long[interns][];
+        this.shifts = new int[interns];
+        this.fewest = new int[interns];
+        this.most = new int[interns];
+        this.balance = new int[interns];
+        int[] targets = SchedulerSolver.hourTargets(table);
+        for (int i = 0; i < interns; i++) {
+            blocked[i] = RosterValidator.blockedDays(table, i);
+            int[] bounds = SchedulerSolver.shiftBounds(table, i);
+            fewest[i] = bounds[0] - table.getPriorShifts(i);
+            most[i] = bounds[1] - table.getPriorShifts(i);
+            balance[i] = table.getPriorHours(i) - targets[i];
+        }
+        for (int d = 0; d < days; d++) {
+            for (int s = 0; s < SHIFTS.length; s++) {
+                int intern = roster.assignee(d, s);
+                assignees[d][s] = intern;
+                if (intern >= 0 && intern < interns) {
+                    set(intern, d, s, true);
+                }
+            }
+        }
+        sortByBalance();
+    }
+
+    /**
+     * Whether {@code to} may take the shift {@code from} works on the day.
+     */
+    public Verdict checkGiveaway(int day, int shift, int from, int to) {
+        Set<Reason> reasons = EnumSet.noneOf(Reason.class);
+        if (!isSlot(day, shift) || !isIntern(from) || !isIntern(to) || assignees[day][shift] != from || from == to) {
+            reasons.add(Reason.NOT_ASSIGNED);
+            return new Verdict(reasons, spread(-1, 0, -1, 0));
+        }
+        canTake(to, day, shift, reasons);
+        if (shifts[to] + 1 > most[to]) {
+            reasons.add(Reason.MAX_SHIFTS);
+        }
+        if (shifts[from] - 1 < fewest[from]) {
+            reasons.add(Reason.MIN_SHIFTS);
+        }
+        int hours = SHIFTS[shift].hours;
+        return new Verdict(reasons, spread(from, balance[from] - hours, to, balance[to] + hours));
+    }
+
+    /**
+     * Whether {@code a}, who works {@code shiftA} on {@code dayA}, and {@code b}, who works {@code shiftB} on
+     * {@code dayB}, may swap those shifts. Each checks their rest without the shift they give away.
+     */
+    public Verdict checkTrade(int dayA, int shiftA, int a, int dayB, int shiftB, int b) {
+        Set<Reason> reasons = EnumSet.noneOf(Reason.class);
+        if (!isSlot(dayA, shiftA) || !isSlot(dayB, shiftB) || !isIntern(a) || !isIntern(b)
+                || assignees[dayA][shiftA] != a || assignees[dayB][shiftB] != b || a == b) {
+            reasons.add(Reason.NOT_ASSIGNED);
+            return new Verdict(reasons, spread(-1, 0, -1, 0));
+        }
+        set(a, dayA, shiftA, false);
+        set(b, dayB, shiftB, false);
+        try {
+            canTake(a, dayB, shiftB, reasons);
+            canTake(b, dayA, shiftA, reasons);
+        } finally {
+            set(a, dayA, shiftA, true);
+            set(b, dayB, shiftB, true);
+        }
+        int difference = SHIFTS[shiftB].hours - SHIFTS[shiftA].hours;
+        return new Verdict(reasons, spread(a, balance[a] + difference, b, balance[b] - difference));
+    }
+
+    /**
+     * Everyone who could take the shift off whoever works it, the fewest hours over target after the swap first and
+     * ties going to whoever is furthest behind. A candidate the shift would take over their most shifts is left out,
+     * as is every candidate when the intern giving it away would drop below their fewest. None for a day or shift out
+     * of range.
+     */
+    public List<Candidate> candidates(int day, int shift) {
+        if (!isSlot(day, shift)) {
+            return List.of();
+        }
+        int from = assignees[day][shift];
+        if (from < 0 || shifts[from] - 1 < fewest[from]) {
+            return List.of();
+        }
+        int hours = SHIFTS[shift].hours;
+        List<Candidate> candidates = new ArrayList<>();
+        Set<Reason> reasons = EnumSet.noneOf(Reason.class);
+        for (int to = 0; to < interns; to++) {
+            if (to == from || shifts[to] + 1 > most[to]) {
+                continue;
+            }
+            reasons.clear();
+            canTake(to, day, shift, reasons);
+            if (reasons.isEmpty()) {
+                candidates.add(new Candidate(to, balance[to] + hours,
+                        spread(from, balance[from] - hours, to, balance[to] + hours)));
+            }
+        }
+        candidates.sort(Comparator.comparingInt(Candidate::hourSpread).thenComparingInt(Candidate::balance)
+                .thenComparingInt(Candidate::intern));
+        return candidates;
+    }
+
+    /**
+     * Makes a giveaway that passed its check.
+     */
+    public void giveaway(int day, int shift, int from, int to) {
+        requireFeasible(checkGiveaway(day, shift, from, to));
+        move(day, shift, from, to);
+        sortByBalance();
+    }
+
+    /**
+     * Makes a trade that passed its check.
+     */
+    public void trade(int dayA, int shiftA, int a, int dayB, int shiftB, int b) {
+        requireFeasible(checkTrade(dayA, shiftA, a, dayB, shiftB, b));
+        move(dayA, shiftA, a, b);
+        move(dayB, shiftB, b, a);
+        sortByBalance();
+    }
+
+    /**
+     * The roster with every swap made so far.
+     */
+    public Roster roster() {
+        int[][] copy = new int[days][];
+        for (int d = 0; d < days; d++) {
+            copy[d] = assignees[d].clone();
+        }
+        return new Roster(interns, copy);
+    }
+
+    public int hourSpread() {
+        return spread(-1, 0, -1, 0);
+    }
+
+    private boolean isSlot(int day, int shift) {
+        return day >= 0 && day < days && shift >= 0 && shift < SHIFTS.length;
+    }
+
+    private boolean isIntern(int intern) {
+        return intern >= 0 && intern < interns;
+    }
+
+    private static void requireFeasible(Verdict verdict) {
+        if (!verdict.isFeasible()) {
+            throw new IllegalArgumentException("swap breaks " + verdict.reasons());
+        }
+    }
+
+    private void move(int day, int shift, int from, int to) {
+        set(from, day, shift, false);
+        set(to, day, shift, true);
+        assignees[day][shift] = to;
+    }
+
+    private void set(int intern, int day, int shift, boolean on) {
+        long bit = 1L << day;
+        long[] days = worked[intern * SHIFTS.length + shift];
+        int sign = on ? 1 : -1;
+        days[day >>> 6] = on ? days[day >>> 6] | bit : days[day >>> 6] & ~bit;
+        shifts[intern] += sign;
+        balance[intern] += sign * SHIFTS[shift].hours;
+    }
+
+    /**
+     * Adds the reasons the intern cannot work the shift on the day, leave and rest only.
+     */
+    private void canTake(int intern, int day, int shift, Set<Reason> reasons) {
+        if ((blocked[intern][day >>> 6] & 1L << day) != 0) {
+            reasons.add(Reason.UNAVAILABLE);
+        }
+        // no other day worked within the rest either side, or within this shift's own rest after it
+        int from = Math.max(0, day - restDays);
+        int to = Math.min(days - 1, day + Math.max(restDays, shiftRestDays[shift]));
+        for (int s = 0; s < SHIFTS.length; s++) {
+            long[] days = worked[intern * SHIFTS.length + s];
+            if (any(days, from, to)) {
+                reasons.add(Reason.REST);
+                return;
+            }
+            // an earlier shift that needs a longer rest than the base
+            if (shiftRestDays[s] > restDays && any(days, Math.max(0, day - shiftRestDays[s]), day - restDays - 1)) {
+                reasons.add(Reason.REST);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Whether any of days {@code [from, to]} is set.
+     */
+    private static boolean any(long[] bits, int from, int to) {
+        if (from > to) {
+            return false;
+        }
+        int first = from >>> 6;
+        int last = to >>> 6;
+        long firstMask = -1L << from;
+        long lastMask = -1L >>> (63 - (to & 63));
+        if (first == last) {
+            return (bits[first] & firstMask & lastMask) != 0;
+        }
+        if ((bits[first] & firstMask) != 0 || (bits[last] & lastMask) != 0) {
+            return true;
+        }
+        for (int w = first + 1; w < last; w++) {
+            if (bits[w] != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The hour spread with the balances of up to two interns replaced, -1 for none. Only the two interns at either
+     * end of the balance order can be skipped, so this reads at most three from each end.
+     */
+    private int spread(int a, int balanceA, int b, int balanceB) {
+        if (interns == 0) {
+            return 0;
+        }
+        int highest = Integer.MIN_VALUE;
+        int lowest = Integer.MAX_VALUE;
+        if (a >= 0) {
+            highest = Math.max(highest, balanceA);
+            lowest = Math.min(lowest, balanceA);
+        }
+        if (b >= 0) {
+            highest = Math.max(highest, balanceB);
+            lowest = Math.min(lowest, balanceB);
+        }
+        for (int k = 0; k < interns; k++) {
+            int i = byBalance[k];
+            if (i != a && i != b) {
+                lowest = Math.min(lowest, balance[i]);
+                break;
+            }
+        }
+        for (int k = interns - 1; k >= 0; k--) {
+            int i = byBalance[k];
+            if (i != a && i != b) {
+                highest = Math.max(highest, balance[i]);
+                break;
+            }
+        }
+        return highest - lowest;
+    }
+
+    private void sortByBalance() {
+        byBalance = IntStream.range(0, interns).boxed().sorted(Comparator.comparingInt(i -> balance[i]))
+                .mapToInt(Integer::intValue).toArray();
+    }
+}
@@ -0,0 +1,91 @@
+package org.wiles.scheduler;
+
+import com.google.ortools.sat.BoolVar;
+import com.google.ortools.sat.CpModel;
+import com.google.ortools.sat.Literal;
+
+import java.util.*;
+
+/**
+ * Interns with the same days off, requests, history, contract and previous roster are interchangeable: swapping two
+ * of their rows turns any roster into another one with the same objective. Left alone, CP-SAT proves optimality over
+ * every such permutation. Ordering the rows of each class lexicographically keeps exactly one roster of every
+ * permutation.
+ * <p>
+ * The ordering is baked into the model, so it must not be used for models that get constraints on individual interns
+ * afterwards (leave overlays on a compiled roster, frozen cells in a repair).
+ */
+class SymmetryBreaker {
+
+    // cells tells apart interns whose days off were only set after their cells were created
+    private record Signature(BitSet unavailable, int cells, Set<Request> requests, int requestCap,
+                             List<Integer> priorShifts, int lastShiftDay,
+                             Table.Shift lastShift, List<Integer> previousRoster, int fte) {
+    }
+
+    private SymmetryBreaker() {
+    }
+
+    /**
+     * The classes of interchangeable interns with at least two members, each in ascending intern order.
+     */
+    static List<int[]> classes(Table table) {
+        Map<Signature, List<Integer>> classes = new LinkedHashMap<>();
+        for (int i : table.allInterns) {
+            classes.computeIfAbsent(signature(table, i), k -> new ArrayList<>()).add(i);
+        }
+        return classes.values().stream().filter(members -> members.size() > 1)
+                .map(members -> members.stream().mapToInt(Integer::intValue).toArray()).toList();
+    }
+
+    private static Signature signature(Table table, int intern) {
+        List<Integer> prior = Arrays.stream(Table.Shift.values()).map(s -> table.getPriorShifts(intern, s)).toList();
+        List<Integer> previous = new ArrayList<>();
+        Roster roster = table.getPreviousRoster();
+        if (roster != null) {
+            for (int d = 0; d < Math.min(table.days, roster.days()); d++) {
+                for (int s : table.allShifts) {
+                    if (roster.isOn(intern, d, s)) {
+                        previous.add(d * table.allShifts.length + s);
+                    }
+                }
+            }
+        }
+        return new Signature(table.getUnavailable(intern), table.getInterns(intern).size(),
+                new HashSet<>(table.getRequests().get(intern)), table.getRequestCap(intern),
+                prior, table.getLastShiftDay(intern), table.getLastShift(intern), previous, table.getFte(intern));
+    }
+
+    /**
+     * Orders the rows of every class so that each member's row is lexicographically at least the next member's.
+     */
+    static void addLexOrdering(Table table, List<int[]> classes) {
+        for (int[] members : classes) {
+            for (int k = 0; k + 1 < members.length; k++) {
+                addLexGreaterOrEqual(table.getModel(), row(table, members[k]), row(table, members[k + 1]));
+            }
+        }
+    }
+
+    private static Literal[] row(Table table, int intern) {
+        return table.getInterns(intern).toArray(new Literal[0]);
+    }
+
+    /**
+     * x >=lex y. equal[j] is forced true while x and y agree on the first j cells, and while it is true x[j] must be
+     * at least y[j].
+     */
+    private static void addLexGreaterOrEqual(CpModel model, Literal[] x, Literal[] y) {
+        Literal equal = model.trueLiteral();
+        for (int j = 0; j < x.length; j++) {
+            model.addBoolOr(new Literal[]{equal.not(), y[j].not(), x[j]});
+            if (j + 1 == x.length) {
+                break;
+            }
+            BoolVar next = model.newBoolVar("lex");
+            model.addBoolOr(new Literal[]{equal.not(), x[j].not(), y[j].not(), next});
+            model.addBoolOr(new Literal[]{equal.not(), x[j], y[j], next});
+            equal = next;
+        }
+    }
+}
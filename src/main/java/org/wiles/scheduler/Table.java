@@ -4,66 +4,74 @@ import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.Multimap;
 import com.google.common.primitives.Ints;
 import com.google.ortools.sat.*;
-import org.apache.commons.lang3.tuple.Pair;
 
 import java.util.*;
 import java.util.function.IntPredicate;
 import java.util.stream.IntStream;
-import java.util.stream.Stream;
 
 public class Table {
 
     private final CpModel model = new CpModel();
     private final List<String> interns;
-    private final IntPredicate isWeekEndOrPublicHoliday;
+    private final RosterCalendar calendar;
 
 
     private final int[] dayRange;
     private final List<IntVar> hoursTrackng = new ArrayList<>();
 
 
-    public static class Key {
-        Integer intern;
-        Integer day;
-        Shift shift;
-
-        public Key(Integer intern, Integer day, Shift shift) {
-            this.intern = intern;
-            this.day = day;
-            this.shift = shift;
-        }
-
-        @Override
-        public boolean equals(Object o) {
-            if (this == o) return true;
-            if (o == null || getClass() != o.getClass()) return false;
-            Key key = (Key) o;
-            return Objects.equals(intern, key.intern) && Objects.equals(day, key.day) && Objects.equals(shift, key.shift);
-        }
-
-        @Override
-        public int hashCode() {
-            return Objects.hash(intern, day, shift);
-        }
-    }
+    /*
+     * Every BoolVar is held exactly once, in cells, laid out by the ShiftLayout: one slot per (day, shift) that
+     * actually runs, holding a cell for each intern available that day. The cells of slot k are
+     * cells[slotStart[k]..slotStart[k + 1]), so the cells of a day and of a day+shift are contiguous. cellOf[k * n + i]
+     * is the index of intern i's cell in slot k, or -1, and internCells[i] lists intern i's cell indices in slot order.
+     *
+     * The cells are created the first time any of them is asked for, so that availability given before then removes
+     * cells from the model rather than constraining them to 0.
+     *
+     * The catalog is always the calendar's three Shift calls with one intern each: Roster, the history, the rest rules
+     * and the hours are all keyed by Shift and hold one intern per day and shift. Other catalogs, with more calls or
+     * more interns on a call, only go through TableIntVars.
+     */
+    private final ShiftLayout layout;
+    private BoolVar[] cells;
+    private int[] slotStart;
+    private int[] cellOf;
+    private int[][] internCells;
+    // days each intern cannot work, for any reason
+    private final BitSet[] unavailable;
+    private final Multimap<Integer, Block> blocks = ArrayListMultimap.create();
 
-    final Literal[][][] shifts;
-    private final Multimap<Integer, Literal> dayMap = ArrayListMultimap.create();
-    private final Multimap<Integer, Literal> internsMap = ArrayListMultimap.create();
-    private final Multimap<Pair<Integer, Shift>, Literal> dayShiftMap = ArrayListMultimap.create();
-    // Pair<InternId, Day> -> IntVar
-    private final Multimap<Pair<Integer, Integer>, Literal> internDayMap = ArrayListMultimap.create();
     final int days;
     private final int numberOfShifts;
     private final Multimap<Integer, Integer> leaveMap = ArrayListMultimap.create();
+    // days each intern asked off, by any request for time off
     private final Multimap<Integer, Integer> requestMap = ArrayListMultimap.create();
+    private final Multimap<Integer, Request> requests = ArrayListMultimap.create();
+    // most requests of each intern that count towards the objective
+    private final int[] requestCap;
 
     final int[] allInterns;// = IntStream.range(0, numNurses).toArray();
     final int[] allDays;// = IntStream.range(0, numDays).toArray();
     final int[] allShifts;// = IntStream.range(0, numShifts).toArray();
     public IntVar maxRequests;
+    public IntVar changes;
+    public IntVar hourSpread;
+    // set once SchedulerSolver has added the constraints, so that they are never added twice
+    boolean built;
+    private Roster previousRoster;
+    private boolean minimiseChanges;
+
+    // work done before day 0, e.g. in the previous window of a rolling horizon
+    private final int[][] priorShifts;
+    private final int[] lastShiftDay;
+    private final Shift[] lastShift;
 
-    private final Map<Key, Literal> core = new HashMap<>();
+    // days off after any shift, and after particular shifts if they need more
+    private int restDays = 1;
+    private final int[] shiftRestDays = new int[Shift.values().length];
+    // contracted share of a full-time post, in percent
+    private final int[] fte;
 
 
     public int getNumberOfShifts() {
@@ -71,6 +79,22 @@ public class Table {
     }
 
 
+    /**
+     * Why an intern cannot work.
+     */
+    public enum Unavailability {
+        LEAVE,
+        EXAM,
+        /** working on a rotation elsewhere */
+        ROTATION
+    }
+
+    /**
+     * Days {@code fromDay} to {@code toDay}, both included, that an intern cannot work.
+     */
+    public record Block(Unavailability reason, int fromDay, int toDay) {
+    }
+
     public enum Shift {
 
         WEEK_DAY(16),
@@ -85,9 +109,13 @@ public class Table {
     }
 
     public Table(List<String> interns, int days, IntPredicate isWeekEndOrPublicHoliday) {
+        this(interns, RosterCalendar.of(days, isWeekEndOrPublicHoliday));
+    }
+
+    public Table(List<String> interns, RosterCalendar calendar) {
         this.interns = interns;
-        this.isWeekEndOrPublicHoliday = isWeekEndOrPublicHoliday;
-        int[] internsRange = IntStream.range(0, this.interns.size()).toArray();
+        this.calendar = calendar;
+        int days = calendar.days();
         this.dayRange = IntStream.range(0, days).toArray();
         this.days = days;
 
@@ -99,39 +127,94 @@ public class Table {
         allShifts = IntStream.range(0, Shift.values().length).toArray();
 
 
-        int shifts = 0;
-        this.shifts = new Literal[interns.size()][days][Shift.values().length];
-        for (int d : dayRange) {
-            Shift[] shiftTypes;
-            if (isWeekEndOrPublicHoliday.negate().test(d)) {
-                shiftTypes = new Shift[]{Shift.WEEK_DAY};
-            } else {
-                shiftTypes = new Shift[]{Shift.WEEKEND, Shift.WEEKEND_SHORTCALL};
-            }
+        int n = interns.size();
+        this.layout = ShiftLayout.of(calendar, ShiftCatalog.of(calendar));
+        this.unavailable = new BitSet[n];
+        Arrays.setAll(unavailable, i -> new BitSet(days));
+        this.numberOfShifts = layout.requiredShifts();
+        this.priorShifts = new int[n][Shift.values().length];
+        this.lastShiftDay = new int[n];
+        Arrays.fill(lastShiftDay, Integer.MIN_VALUE);
+        this.lastShift = new Shift[n];
+        this.fte = new int[n];
+        Arrays.fill(fte, 100);
+        this.requestCap = new int[n];
+        Arrays.fill(requestCap, Integer.MAX_VALUE);
+    }
 
+    /**
+     * A new table, with its own model, for the same interns and calendar that keeps the rest rules, contracts and the
+     * work done before day 0 but none of the leave, other blocks, requests or previous roster.
+     */
+    Table copyRules() {
+        Table copy = new Table(interns, calendar);
+        copy.restDays = restDays;
+        System.arraycopy(shiftRestDays, 0, copy.shiftRestDays, 0, shiftRestDays.length);
+        for (int i : allInterns) {
+            System.arraycopy(priorShifts[i], 0, copy.priorShifts[i], 0, priorShifts[i].length);
+        }
+        System.arraycopy(lastShiftDay, 0, copy.lastShiftDay, 0, lastShiftDay.length);
+        System.arraycopy(lastShift, 0, copy.lastShift, 0, lastShift.length);
+        System.arraycopy(fte, 0, copy.fte, 0, fte.length);
+        return copy;
+    }
 
-            for (Shift s : shiftTypes) {
-                shifts++;
-                for (int i : internsRange) {
-                    BoolVar var = model.newBoolVar("day=" + d + " " + this.interns.get(i) + " shift=" + s);
-                    dayMap.put(d, var);
-                    dayShiftMap.put(Pair.of(d, s), var);
-                    internsMap.put(i, var);
-                    internDayMap.put(Pair.of(i, d), var);
-                    this.shifts[i][d][s.ordinal()] = var;
-                    core.put(new Key(i, d, s), var);
+    /**
+     * Creates the cells of available interns, once.
+     */
+    private BoolVar[] cells() {
+        if (cells != null) {
+            return cells;
+        }
+        int n = interns.size();
+        slotStart = new int[layout.slots() + 1];
+        cellOf = new int[layout.slots() * n];
+        int[] internCount = new int[n];
+        List<BoolVar> created = new ArrayList<>();
+        for (int k = 0; k < layout.slots(); k++) {
+            slotStart[k] = created.size();
+            int d = layout.day(k);
+            for (int i = 0; i < n; i++) {
+                if (unavailable[i].get(d)) {
+                    cellOf[k * n + i] = -1;
+                    continue;
                 }
+                cellOf[k * n + i] = created.size();
+                internCount[i]++;
+                created.add(model.newBoolVar("day=" + d + " " + interns.get(i) + " shift=" + Shift.values()[layout.shift(k)]));
             }
         }
-        this.numberOfShifts = shifts;
+        slotStart[layout.slots()] = created.size();
+        internCells = new int[n][];
+        for (int i = 0; i < n; i++) {
+            internCells[i] = new int[internCount[i]];
+            internCount[i] = 0;
+        }
+        for (int c = 0; c < cellOf.length; c++) {
+            if (cellOf[c] >= 0) {
+                int i = c % n;
+                internCells[i][internCount[i]++] = cellOf[c];
+            }
+        }
+        cells = created.toArray(new BoolVar[0]);
+        return cells;
+    }
+
+    public RosterCalendar getCalendar() {
+        return calendar;
+    }
+
+    public ShiftLayout getLayout() {
+        return layout;
     }
 
     public IntStream getWeekDays() {
-        return IntStream.range(0, days).filter(isWeekEndOrPublicHoliday.negate());
+        return calendar.days(RosterCalendar.DayType.WEEKDAY);
     }
 
     public IntStream getWeekEndDays() {
-        return IntStream.range(0, days).filter(isWeekEndOrPublicHoliday);
+        return IntStream.concat(calendar.days(RosterCalendar.DayType.WEEKEND),
+                calendar.days(RosterCalendar.DayType.PUBLIC_HOLIDAY)).sorted();
     }
 
 
@@ -143,21 +226,42 @@ public class Table {
      * Get all Cells for a specific day (all interns and all shifts)
      */
     public Literal[] getDay(int i) {
-        return this.dayMap.get(i).toArray(new Literal[0]);
+        BoolVar[] cells = cells();
+        return Arrays.copyOfRange(cells, slotStart[layout.firstSlot(i)], slotStart[layout.endSlot(i)]);
     }
 
 
     public Collection<Literal> getInterns(int internIndex) {
-        return internsMap.get(internIndex);
+        return new InternCells(internIndex, 0, layout.slots());
     }
 
     public Collection<Literal> getInterns(int internIndex, int day) {
-        return internDayMap.get(Pair.of(internIndex, day));
+        return new InternCells(internIndex, layout.firstSlot(day), layout.endSlot(day));
     }
 
     public Literal[] getDay(int i, Shift... shift) {
-        Stream<Literal> literalStream = Arrays.stream(shift).flatMap(s -> this.dayShiftMap.get(Pair.of(i, s)).stream());
-        return literalStream.toArray(Literal[]::new);
+        BoolVar[] cells = cells();
+        return Arrays.stream(shift).mapToInt(s -> layout.slot(i, s.ordinal())).filter(k -> k >= 0)
+                .mapToObj(k -> Arrays.copyOfRange(cells, slotStart[k], slotStart[k + 1])).flatMap(Arrays::stream)
+                .toArray(Literal[]::new);
+    }
+
+    /**
+     * The cell of one intern on one day for one shift, or null if that shift does not run on that day or the intern
+     * was not available when the cells were created.
+     */
+    public BoolVar get(int intern, int day, int shift) {
+        BoolVar[] cells = cells();
+        int k = layout.slot(day, shift);
+        int c = k < 0 ? -1 : cellOf[k * interns.size() + intern];
+        return c < 0 ? null : cells[c];
+    }
+
+    /**
+     * Whether the shift runs on the day.
+     */
+    public boolean runs(int day, int shift) {
+        return layout.slot(day, shift) >= 0;
     }
 
 
@@ -169,32 +273,252 @@ public class Table {
         return model;
     }
 
+    /**
+     * Leave is a block of {@link Unavailability#LEAVE} on each of the days.
+     */
     public void addLeaveDays(int internIdx, int... dayIndices) {
         leaveMap.putAll(internIdx, Ints.asList(dayIndices));
+        for (int day : dayIndices) {
+            if (day >= 0 && day < days) {
+                blocks.put(internIdx, new Block(Unavailability.LEAVE, day, day));
+                unavailable[internIdx].set(day);
+            }
+        }
+    }
+
+    /**
+     * Marks days {@code fromDay} to {@code toDay}, both included and clipped to the horizon, as days the intern cannot
+     * work. Given before the model is built, the intern gets no cells on those days at all; leave added later is
+     * constrained off instead.
+     */
+    public void addBlock(int internIdx, Unavailability reason, int fromDay, int toDay) {
+        if (reason == Unavailability.LEAVE) {
+            addLeaveDays(internIdx, IntStream.rangeClosed(fromDay, toDay).toArray());
+            return;
+        }
+        if (cells != null) {
+            throw new IllegalStateException("the cells exist already; add " + reason + " blocks before building the model");
+        }
+        int from = Math.max(0, fromDay);
+        int to = Math.min(days - 1, toDay);
+        if (from > to) {
+            return;
+        }
+        blocks.put(internIdx, new Block(reason, from, to));
+        unavailable[internIdx].set(from, to + 1);
+    }
+
+    public boolean isAvailable(int internIdx, int day) {
+        return !unavailable[internIdx].get(day);
     }
 
+    /**
+     * The days the intern cannot work, as a copy.
+     */
+    public BitSet getUnavailable(int internIdx) {
+        return (BitSet) unavailable[internIdx].clone();
+    }
+
+    public Multimap<Integer, Block> getBlocks() {
+        return blocks;
+    }
+
+    /**
+     * A {@link Request#dayOff(int)} of weight 1 for each of the days.
+     */
     public void addRequests(int internIdx, int... leaveRequests) {
-        this.requestMap.putAll(internIdx, Ints.asList(leaveRequests));
+        for (int day : leaveRequests) {
+            addRequest(internIdx, Request.dayOff(day));
+        }
+    }
+
+    /**
+     * Adds a request of the intern. A weekend off is widened to every day of the weekend or run of public holidays its
+     * day is in. Requests on days outside the table are kept but never counted.
+     */
+    public void addRequest(int internIdx, Request request) {
+        if (request.type() == Request.Type.WEEKEND_OFF && request.fromDay() >= 0 && request.fromDay() < days) {
+            if (!calendar.test(request.fromDay())) {
+                throw new IllegalArgumentException("day " + request.fromDay() + " is not on a weekend or public holiday");
+            }
+            int from = request.fromDay();
+            int to = request.fromDay();
+            while (from > 0 && calendar.test(from - 1)) {
+                from--;
+            }
+            while (to < days - 1 && calendar.test(to + 1)) {
+                to++;
+            }
+            request = request.withDays(from, to);
+        }
+        requests.put(internIdx, request);
+        if (request.isTimeOff()) {
+            requestMap.putAll(internIdx, Ints.asList(IntStream.rangeClosed(request.fromDay(), request.toDay()).toArray()));
+        }
+    }
+
+    public Multimap<Integer, Request> getRequests() {
+        return requests;
+    }
+
+    /**
+     * Counts at most {@code cap} of the intern's honoured requests, the heaviest, so that an intern who asks for a lot
+     * cannot crowd out everybody else's requests. No cap unless set.
+     */
+    public void setRequestCap(int internIdx, int cap) {
+        if (cap < 0) {
+            throw new IllegalArgumentException("the request cap must not be negative but was " + cap);
+        }
+        requestCap[internIdx] = cap;
+    }
+
+    public int getRequestCap(int internIdx) {
+        return requestCap[internIdx];
+    }
+
+    /**
+     * The weight of the requests the roster honours, counting each intern's heaviest up to their cap, which is what
+     * the solver maximises as {@link #maxRequests}.
+     */
+    public int requestScore(Roster roster) {
+        int score = 0;
+        for (int i : allInterns) {
+            int intern = i;
+            score += requests.get(i).stream()
+                    .filter(request -> request.fromDay() >= 0 && request.fromDay() < days)
+                    .filter(request -> request.isHonouredBy(roster, intern))
+                    .map(request -> -request.weight()).sorted().limit(requestCap[i])
+                    .mapToInt(weight -> -weight).sum();
+        }
+        return score;
+    }
+
+    /**
+     * Starts the search from an earlier roster, e.g. the published one before someone's leave changed. Days and
+     * interns beyond either roster are ignored.
+     *
+     * @param minimiseChanges also penalise every shift that moves away from the intern it had in {@code previous}
+     */
+    public void setPreviousRoster(Roster previous, boolean minimiseChanges) {
+        this.previousRoster = previous;
+        this.minimiseChanges = minimiseChanges;
+    }
+
+    public Roster getPreviousRoster() {
+        return previousRoster;
+    }
+
+    public boolean isMinimiseChanges() {
+        return minimiseChanges;
+    }
+
+    /**
+     * Counts shifts the intern already worked before day 0, so that shift and hour balancing runs over both.
+     */
+    public void addPriorShifts(int internIdx, Shift shift, int count) {
+        priorShifts[internIdx][shift.ordinal()] += count;
+    }
+
+    public int getPriorShifts(int internIdx, Shift shift) {
+        return priorShifts[internIdx][shift.ordinal()];
+    }
+
+    public int getPriorShifts(int internIdx) {
+        return Arrays.stream(priorShifts[internIdx]).sum();
+    }
+
+    public int getPriorHours(int internIdx) {
+        return Arrays.stream(Shift.values()).mapToInt(s -> priorShifts[internIdx][s.ordinal()] * s.hours).sum();
+    }
+
+    /**
+     * Records the last shift the intern worked before day 0, on a negative day ({@code -1} is the day before day 0),
+     * so that the rest rules hold across the boundary.
+     */
+    public void setLastShift(int internIdx, int day, Shift shift) {
+        if (day >= 0) {
+            throw new IllegalArgumentException("the last shift must be before day 0 but was on day " + day);
+        }
+        lastShiftDay[internIdx] = day;
+        lastShift[internIdx] = shift;
+    }
+
+    /**
+     * @return the day of the last shift before day 0, or {@link Integer#MIN_VALUE} if not known
+     */
+    public int getLastShiftDay(int internIdx) {
+        return lastShiftDay[internIdx];
+    }
+
+    public Shift getLastShift(int internIdx) {
+        return lastShift[internIdx];
+    }
+
+    /**
+     * Days an intern must be off after any shift: 1 (the default) means no consecutive days, 0 allows them.
+     */
+    public void setRestDays(int restDays) {
+        if (restDays < 0) {
+            throw new IllegalArgumentException("rest days must not be negative but was " + restDays);
+        }
+        this.restDays = restDays;
+    }
+
+    public int getRestDays() {
+        return restDays;
+    }
+
+    /**
+     * Days an intern must be off after this particular shift, e.g. 2 after a 24 hour weekend call. Only matters if
+     * it is longer than {@link #getRestDays()}.
+     */
+    public void addRestRule(Shift shift, int restDays) {
+        shiftRestDays[shift.ordinal()] = restDays;
+    }
+
+    public int getRestDays(Shift shift) {
+        return Math.max(restDays, shiftRestDays[shift.ordinal()]);
+    }
+
+    /**
+     * The intern's contract as a percentage of full time, e.g. {@code 50} for half time; their shifts and hours are
+     * balanced against that share of the total. Everyone is full time ({@code 100}) unless set.
+     */
+    public void setFte(int internIdx, int percent) {
+        if (percent < 1 || percent > 100) {
+            throw new IllegalArgumentException("FTE must be between 1 and 100 percent but was " + percent);
+        }
+        fte[internIdx] = percent;
+    }
+
+    public int getFte(int internIdx) {
+        return fte[internIdx];
     }
 
     public Multimap<Integer, Integer> getLeaveMap() {
         return leaveMap;
     }
 
+    /**
+     * The days each intern asked off.
+     */
     public Multimap<Integer, Integer> getRequestMap() {
         return requestMap;
     }
 
     public List<Literal> get(Integer intern, Integer day, Shift shift) {
-        List<Integer> interns = intern != null ? List.of(intern) : Ints.asList(allInterns);
-        List<Integer> days = day != null ? List.of(day) : Ints.asList(allDays);
-        List<Shift> shifts = shift != null ? List.of(shift) : Arrays.asList(Shift.values());
+        int[] interns = intern != null ? new int[]{intern} : allInterns;
+        int[] days = day != null ? new int[]{day} : allDays;
+        int[] shifts = shift != null ? new int[]{shift.ordinal()} : allShifts;
 
         List<Literal> literals = new ArrayList<>();
-        for (Integer i : interns) {
-            for (Integer d : days) {
-                for (Shift s : shifts) {
-                    Optional.ofNullable(core.get(new Key(i, d, s))).ifPresent(literals::add);
+        for (int i : interns) {
+            for (int d : days) {
+                for (int s : shifts) {
+                    Literal literal = get(i, d, s);
+                    if (literal != null) {
+                        literals.add(literal);
+                    }
                 }
             }
         }
@@ -212,4 +536,38 @@ public class Table {
     public List<IntVar> getHoursTrackng() {
         return hoursTrackng;
     }
+
+    /**
+     * Read-only view of the cells of one intern over a range of slots, without copying them out of the store.
+     */
+    private class InternCells extends AbstractList<Literal> implements RandomAccess {
+        private final int intern;
+        private final int from;
+        private final int to;
+
+        InternCells(int intern, int fromSlot, int toSlot) {
+            cells();
+            int[] own = internCells[intern];
+            this.intern = intern;
+            // the intern's cells are in slot order, so the range is found by the cell indices the slots start at
+            this.from = insertionPoint(own, slotStart[fromSlot]);
+            this.to = insertionPoint(own, slotStart[toSlot]);
+        }
+
+        private int insertionPoint(int[] own, int cell) {
+            int at = Arrays.binarySearch(own, cell);
+            return at >= 0 ? at : -at - 1;
+        }
+
+        @Override
+        public Literal get(int index) {
+            Objects.checkIndex(index, size());
+            return cells[internCells[intern][from + index]];
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
+    }
 }
@@ -2,7 +2,10 @@ package org.wiles.scheduler.intvars;
 
 import com.google.ortools.Loader;
 import com.google.ortools.sat.*;
+import org.wiles.scheduler.ShiftLayout;
+import org.wiles.scheduler.SolverOptions;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.stream.IntStream;
 
@@ -19,25 +22,24 @@ public class SchedulerSolverIntVars {
         this.table = table;
     }
 
-    public void solve(CpSolverSolutionCallback onSolutionCallback) {
+    public CpSolverStatus solve(CpSolverSolutionCallback onSolutionCallback) {
+        return solve(SolverOptions.defaults(), onSolutionCallback);
+    }
 
+    /**
+     * Builds the model and searches it with the options, e.g. a time limit, as {@code SchedulerSolver} does.
+     */
+    public CpSolverStatus solve(SolverOptions options, CpSolverSolutionCallback onSolutionCallback) {
 
-        //setup week days
-        IntStream.range(0, 5).forEach(day -> {
-            // exactly one intern on call on week days
-            table.getModel().addEquality(LinearExpr.sum(table.getDay(day, TableIntVars.Shift.WEEK_DAY)), 1);
-            // no interns on week end or short calls on week days
-            table.getModel().addEquality(LinearExpr.sum(table.getDay(day, TableIntVars.Shift.WEEKEND_SHORTCALL, TableIntVars.Shift.WEEKEND)), 0);
-        });
 
-        IntStream.range(5, 7).forEach(day -> {
-            // weekend shortcall + weekend call = 2 (short call and weekend calls covered)
-            table.getModel().addEquality(LinearExpr.sum(table.getDay(day, TableIntVars.Shift.WEEKEND_SHORTCALL, TableIntVars.Shift.WEEKEND)), 2);
-            table.getModel().addEquality(LinearExpr.sum(table.getDay(day, TableIntVars.Shift.WEEK_DAY)), 0);
-        });
+        // as many interns as each shift needs on the days it runs; shifts that do not run have no variables
+        ShiftLayout layout = table.getLayout();
+        IntStream.range(0, layout.slots()).forEach(slot ->
+                table.getModel().addEquality(LinearExpr.sum(table.getSlot(slot)), layout.headcount(slot)));
 
         // at most one shift per day per intern
-        table.getInternDayMap().asMap().values().stream().map(x -> x.toArray(new IntVar[0])).forEach(internDay -> table.getModel().addLessOrEqual(LinearExpr.sum(internDay), 1));
+        Arrays.stream(table.getDayRange()).forEach(day -> IntStream.range(0, table.getInterns().size()).forEach(intern ->
+                table.getModel().addLessOrEqual(LinearExpr.sum(table.getInterns(intern, day).toArray(new IntVar[0])), 1)));
 
 //        addGaps(table);
         distributeShifts(table);
@@ -51,12 +53,12 @@ public class SchedulerSolverIntVars {
 
 
         CpSolver solver = new CpSolver();
-        solver.getParameters().setLinearizationLevel(0);
+        options.applyTo(solver.getParameters());
         // Tell the solver to enumerate all solutions.
 //        solver.getParameters().setEnumerateAllSolutions(true);
 
 
-        CpSolverStatus status = solver.solve(table.getModel(), onSolutionCallback);
+        return solver.solve(table.getModel(), onSolutionCallback);
 
 
     }
@@ -67,9 +69,10 @@ public class SchedulerSolverIntVars {
         // minShiftsPerNurse shifts. If this is not possible, because the total
         // number of shifts is not divisible by the number of nurses, some nurses will
         // be assigned one more shift.
-        int minShiftsPerNurse = 9 / table.getInterns().size();
+        int shifts = table.getLayout().requiredShifts();
+        int minShiftsPerNurse = shifts / table.getInterns().size();
         int maxShiftsPerNurse;
-        if (9 % table.getInterns().size() == 0) {
+        if (shifts % table.getInterns().size() == 0) {
             maxShiftsPerNurse = minShiftsPerNurse;
         } else {
             maxShiftsPerNurse = minShiftsPerNurse + 1;
@@ -84,14 +87,9 @@ public class SchedulerSolverIntVars {
             return builder;
         }).toList();
 
+        // the bounds are hard, so there is nothing left to maximise: without linearization proving that the fewest
+        // shifts cannot rise above the lower bound took the search to its time limit
         list.forEach(builder -> table.getModel().addLinearConstraint(builder, minShiftsPerNurse, maxShiftsPerNurse));
-
-        IntVar minShifts = table.getModel().newIntVar(0, maxShiftsPerNurse, "minShiftsPerIntern");
-        LinearArgument[] array = list.stream().map(LinearExprBuilder::build).toArray(LinearArgument[]::new);
-        table.getModel().addMinEquality(minShifts, array);
-        table.getModel().maximize(minShifts);
-
-
     }
 
 }
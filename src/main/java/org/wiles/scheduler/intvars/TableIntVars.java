@@ -1,58 +1,62 @@
 package org.wiles.scheduler.intvars;
 
-import com.google.common.collect.ArrayListMultimap;
-import com.google.common.collect.Multimap;
 import com.google.ortools.sat.CpModel;
 import com.google.ortools.sat.IntVar;
-import org.apache.commons.lang3.tuple.Pair;
+import org.wiles.scheduler.RosterCalendar;
+import org.wiles.scheduler.ShiftCatalog;
+import org.wiles.scheduler.ShiftLayout;
+import org.wiles.scheduler.ShiftType;
 
+import java.util.AbstractList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
 import java.util.stream.IntStream;
-import java.util.stream.Stream;
 
+import static org.wiles.scheduler.RosterCalendar.DayType.*;
+
+/**
+ * The IntVar formulation of a roster, laid out by a {@link ShiftLayout}, so a variable exists only for a shift on a
+ * day it runs. Shifts are indices into the {@link ShiftCatalog}.
+ */
 public class TableIntVars {
 
+    /**
+     * The three calls of the original model, one intern each: the week day call on week days, the weekend call and
+     * the short call on weekends.
+     */
+    public static final ShiftCatalog DEFAULT_CATALOG = ShiftCatalog.of(
+            ShiftType.of("WEEK_DAY", 16, 1, WEEKDAY),
+            ShiftType.of("WEEKEND", 24, 1, WEEKEND, PUBLIC_HOLIDAY),
+            ShiftType.of("WEEKEND_SHORTCALL", 6, 1, WEEKEND, PUBLIC_HOLIDAY));
+
     private final CpModel model = new CpModel();
     private final List<String> interns;
-
+    private final ShiftLayout layout;
+    private final IntVar[] cells;
 
     private final int[] dayRange;
-    private final Multimap<Integer, IntVar> dayMap = ArrayListMultimap.create();
-    private final Multimap<Integer, IntVar> internsMap = ArrayListMultimap.create();
-    private final Multimap<Pair<Integer, Shift>, IntVar> dayShiftMap = ArrayListMultimap.create();
-    // Pair<InternId, Day> -> IntVar
-    private final Multimap<Pair<Integer, Integer>, IntVar> internDayMap = ArrayListMultimap.create();
-
-    public enum Shift {
-        WEEK_DAY, WEEKEND, WEEKEND_SHORTCALL
-    }
 
 
     public int[] getDayRange() {
         return dayRange;
     }
 
+    /**
+     * A week from Monday: days 5 and 6 of every week are the weekend.
+     */
     public TableIntVars(List<String> interns, int days) {
+        this(interns, RosterCalendar.of(days, day -> day % 7 >= 5), DEFAULT_CATALOG);
+    }
+
+    public TableIntVars(List<String> interns, RosterCalendar calendar, ShiftCatalog catalog) {
         this.interns = interns;
-        int[] internsRange = IntStream.range(0, this.interns.size()).toArray();
-        this.dayRange = IntStream.range(0, days).toArray();
-//
-//
-//        shifts[n][d][s] = model.newIntVar(0L, 1L, "shifts_n" + n + "d" + d + "s" + s);
-
-        for (int i : internsRange) {
-            for (int d : dayRange) {
-                for (Shift s : Shift.values()) {
-                    IntVar intVar = model.newIntVar(0L, 1L, " day=" + d + " " + this.interns.get(i) + " shift=" + s);
-                    dayMap.put(d, intVar);
-                    dayShiftMap.put(Pair.of(d, s), intVar);
-                    internsMap.put(i, intVar);
-                    internDayMap.put(Pair.of(i, d), intVar);
-                }
-            }
-        }
+        this.layout = ShiftLayout.of(calendar, catalog);
+        this.dayRange = IntStream.range(0, calendar.days()).toArray();
+        this.cells = layout.allocate(interns.size(), IntVar[]::new,
+                (i, d, s) -> model.newIntVar(0L, 1L, " day=" + d + " " + this.interns.get(i) + " shift=" + catalog.get(s).name()));
     }
 
     /**
@@ -60,22 +64,44 @@ public class TableIntVars {
      *
      */
     public IntVar[] getDay(int i) {
-        return this.dayMap.get(i).toArray(new IntVar[0]);
+        return Arrays.copyOfRange(cells, layout.firstSlot(i) * interns.size(), layout.endSlot(i) * interns.size());
+    }
+
+    /**
+     * The cells of the shifts on the day, none for a shift that does not run that day.
+     */
+    public IntVar[] getDay(int i, int... shift) {
+        int n = interns.size();
+        return Arrays.stream(shift).map(s -> layout.slot(i, s)).filter(k -> k >= 0)
+                .mapToObj(k -> Arrays.copyOfRange(cells, k * n, (k + 1) * n)).flatMap(Arrays::stream)
+                .toArray(IntVar[]::new);
+    }
+
+    /**
+     * The cells of one slot of the layout.
+     */
+    public IntVar[] getSlot(int slot) {
+        return Arrays.copyOfRange(cells, slot * interns.size(), (slot + 1) * interns.size());
     }
 
     public Collection<IntVar> getInterns(int internIndex) {
-        return internsMap.get(internIndex);
+        return new InternCells(internIndex, 0, layout.slots());
     }
 
-    public Multimap<Pair<Integer, Integer>, IntVar> getInternDayMap() {
-        return internDayMap;
+    public Collection<IntVar> getInterns(int internIndex, int day) {
+        return new InternCells(internIndex, layout.firstSlot(day), layout.endSlot(day));
     }
 
-    public IntVar[] getDay(int i, Shift... shift) {
-        Stream<IntVar> intVarStream = Arrays.stream(shift).flatMap(s -> this.dayShiftMap.get(Pair.of(i, s)).stream());
-        return intVarStream.toArray(IntVar[]::new);
+    /**
+     * The number of variables, one per intern per slot.
+     */
+    public int size() {
+        return cells.length;
     }
 
+    public ShiftLayout getLayout() {
+        return layout;
+    }
 
     public List<String> getInterns() {
         return interns;
@@ -85,5 +111,30 @@ public class TableIntVars {
         return model;
     }
 
+    /**
+     * The cells of one intern over a range of slots, read from the cells without copying.
+     */
+    private class InternCells extends AbstractList<IntVar> implements RandomAccess {
 
+        private final int intern;
+        private final int fromSlot;
+        private final int size;
+
+        InternCells(int intern, int fromSlot, int toSlot) {
+            this.intern = intern;
+            this.fromSlot = fromSlot;
+            this.size = toSlot - fromSlot;
+        }
+
+        @Override
+        public IntVar get(int index) {
+            Objects.checkIndex(index, size);
+            return cells[(fromSlot + index) * interns.size() + intern];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
 }
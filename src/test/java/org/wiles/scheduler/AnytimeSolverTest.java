@@ -0,0 +1,71 @@
+package org.wiles.scheduler;
+
+import com.google.ortools.Loader;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class AnytimeSolverTest {
+
+    static {
+        Loader.loadNativeLibraries();
+    }
+
+    private Table table() {
+        return RosterSpec.of(TestTables.interns(7), TestTables.july(31))
+                .withRequests(0, 1, 2, 3)
+                .withRequests(1, 2, 3, 4)
+                .withRequests(2, 10, 11)
+                .toTable();
+    }
+
+    @Test
+    public void publishesEveryImprovingRoster() throws Exception {
+        AnytimeSolver solver = new AnytimeSolver(table(), SolverOptions.builder().maxTimeSeconds(30).build(),
+                StopPolicy.never());
+        List<RosterSnapshot> snapshots = new CopyOnWriteArrayList<>();
+        var done = solver.consume(snapshots::add);
+
+        SolveResult result = solver.start().get();
+        done.get();
+
+        assertThat(snapshots).isNotEmpty();
+        assertThat(snapshots).extracting(RosterSnapshot::objective).isSorted();
+        assertThat(snapshots.get(snapshots.size() - 1).objective()).isEqualTo(result.objective());
+        assertThat(snapshots.get(snapshots.size() - 1).roster().days()).isEqualTo(31);
+    }
+
+    @Test
+    public void stopsAtTheFirstFeasibleRoster() throws Exception {
+        AnytimeSolver solver = new AnytimeSolver(table(), SolverOptions.builder().maxTimeSeconds(30).build(),
+                StopPolicy.firstFeasible());
+        List<RosterSnapshot> snapshots = new CopyOnWriteArrayList<>();
+        var done = solver.consume(snapshots::add);
+
+        SolveResult result = solver.start().get();
+        done.get();
+
+        assertThat(result.hasSolution()).isTrue();
+        assertThat(snapshots).hasSizeGreaterThanOrEqualTo(1);
+        assertThat(solver.getBest()).isNotNull();
+        assertThat(result.stopReason()).isIn(SolveResult.StopReason.STOP_POLICY, SolveResult.StopReason.OPTIMAL);
+    }
+
+    @Test
+    public void aStopBeforeTheSearchStartsIsNotLost() throws Exception {
+        // proving the hour spread optimal takes far longer than the limit
+        SolverOptions options = SolverOptions.builder().balanceHours(true).maxTimeSeconds(60).build();
+        AnytimeSolver solver = new AnytimeSolver(table(), options, StopPolicy.never());
+
+        solver.stop();
+        SolveResult result = solver.start().get(20, TimeUnit.SECONDS);
+
+        assertThat(result.stopReason()).isEqualTo(SolveResult.StopReason.INTERRUPTED);
+        assertThatThrownBy(solver::start).isInstanceOf(IllegalStateException.class);
+    }
+}
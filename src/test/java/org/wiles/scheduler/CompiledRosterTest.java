@@ -0,0 +1,101 @@
+package org.wiles.scheduler;
+
+import com.google.ortools.Loader;
+import com.google.ortools.sat.CpSolverStatus;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class CompiledRosterTest {
+
+    static {
+        Loader.loadNativeLibraries();
+    }
+
+    @Test
+    public void solveTwiceDoesNotDuplicateConstraints() {
+        Table table = RosterSpec.of(TestTables.interns(5), TestTables.july(14)).toTable();
+        SchedulerSolver schedulerSolver = new SchedulerSolver(table);
+
+        schedulerSolver.solve();
+        int constraints = table.getModel().getBuilder().getConstraintsCount();
+        schedulerSolver.solve();
+        new SchedulerSolver(table).solve();
+
+        assertThat(table.getModel().getBuilder().getConstraintsCount()).isEqualTo(constraints);
+    }
+
+    @Test
+    public void whatIfRunsReuseTheCachedBaseModel() {
+        RosterSpec base = RosterSpec.of(TestTables.interns(7), TestTables.july(31));
+        CompiledModelCache cache = new CompiledModelCache(4);
+        SolverOptions options = SolverOptions.builder().maxTimeSeconds(30).build();
+
+        CompiledRoster.Solution leave = cache.solve(base.withLeaveDays(0, IntStream.range(0, 8).toArray()), options);
+        CompiledRoster.Solution requests = cache.solve(base.withRequests(2, 3, 4, 5), options);
+
+        assertThat(cache.misses()).isEqualTo(1);
+        assertThat(cache.hits()).isEqualTo(1);
+        assertThat(leave.result().status()).isEqualTo(CpSolverStatus.OPTIMAL);
+        IntStream.range(0, 8).forEach(d -> assertThat(IntStream.range(0, 3).map(s -> leave.roster().assignee(d, s))).doesNotContain(0));
+        assertThat(requests.result().objective()).isEqualTo(3);
+        IntStream.of(3, 4, 5).forEach(d -> assertThat(IntStream.range(0, 3).map(s -> requests.roster().assignee(d, s))).doesNotContain(2));
+    }
+
+    @Test
+    public void variantsKeepTheObjectiveOfAFullSolve() {
+        RosterSpec base = RosterSpec.of(TestTables.interns(4), TestTables.july(7));
+        RosterSpec variant = base.withRequests(1, 3, 4).withRequests(2, 5);
+        SolverOptions options = SolverOptions.builder().workers(1).balanceHours(true).maxTimeSeconds(30).build();
+
+        CompiledRoster.Solution whatIf = new CompiledModelCache(1).solve(variant, options);
+        SolveResult full = new SchedulerSolver(variant.toTable(), options).run();
+
+        assertThat(whatIf.result().status()).isEqualTo(CpSolverStatus.OPTIMAL);
+        assertThat(full.status()).isEqualTo(CpSolverStatus.OPTIMAL);
+        // requests and the hour spread, not the requests alone
+        assertThat(whatIf.result().objective()).isEqualTo(full.objective());
+    }
+
+    @Test
+    public void leaveOutsideTheCompiledDaysIsRefused() {
+        RosterSpec base = RosterSpec.of(TestTables.interns(5), TestTables.july(14));
+        CompiledRoster compiled = CompiledRoster.compile(base);
+        SolverOptions options = SolverOptions.builder().maxTimeSeconds(5).build();
+
+        assertThatThrownBy(() -> compiled.solve(base.withLeaveDays(0, 14), options))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("day 14");
+        assertThatThrownBy(() -> compiled.solve(base.withLeaveDays(5, 3), options))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("intern 5");
+    }
+
+    @Test
+    public void concurrentCallersShareOneBuild() throws Exception {
+        RosterSpec base = RosterSpec.of(TestTables.interns(7), TestTables.july(31));
+        CompiledModelCache cache = new CompiledModelCache(4);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<CompiledRoster>> futures = new ArrayList<>();
+            for (int k = 0; k < 4; k++) {
+                int intern = k;
+                futures.add(executor.submit(() -> cache.get(base.withRequests(intern, 3))));
+            }
+            CompiledRoster first = futures.get(0).get();
+            for (Future<CompiledRoster> future : futures) {
+                assertThat(future.get()).isSameAs(first);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(cache.misses()).isEqualTo(1);
+        assertThat(cache.hits()).isEqualTo(3);
+    }
+}
@@ -0,0 +1,80 @@
+package org.wiles.scheduler;
+
+import com.google.ortools.Loader;
+import com.google.ortools.sat.BoolVar;
+import com.google.ortools.sat.CpSolverStatus;
+import com.google.ortools.sat.PartialVariableAssignment;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class GreedyRosterBuilderTest {
+
+    static {
+        Loader.loadNativeLibraries();
+    }
+
+    private Table table() {
+        Table table = TestTables.table(7, 31);
+        table.addLeaveDays(0, 3, 4, 5, 6);
+        table.addLeaveDays(4, 20, 21);
+        table.addRequests(1, 10, 11);
+        table.addRequests(2, 15);
+        return table;
+    }
+
+    @Test
+    public void buildsARosterThatKeepsTheHardRules() {
+        Table table = table();
+
+        GreedyRosterBuilder.Result result = new GreedyRosterBuilder(table).build(1, 20);
+
+        assertThat(result.violations()).isEmpty();
+        Roster roster = result.roster();
+        IntStream.range(0, 31).forEach(d -> IntStream.range(0, 3)
+                .filter(s -> table.runs(d, s))
+                .forEach(s -> assertThat(roster.assignee(d, s)).isNotNegative()));
+        IntStream.of(3, 4, 5, 6).forEach(d -> IntStream.range(0, 3).forEach(s -> assertThat(roster.isOn(0, d, s)).isFalse()));
+        // never on call on consecutive days, whatever the shifts
+        IntStream.range(0, 30).forEach(d -> IntStream.range(0, 7).forEach(i ->
+                assertThat(roster.isWorking(i, d) && roster.isWorking(i, d + 1)).isFalse()));
+        assertThat(new RosterValidator(table).validate(roster).violations()).isEmpty();
+        assertThat(result.requestsHonoured()).isPositive();
+    }
+
+    @Test
+    public void hintedSolveStartsFromTheGreedyRoster() {
+        Table table = table();
+        Roster roster = new GreedyRosterBuilder(table).build(1, 20).roster();
+        GreedyRosterBuilder.hint(table, roster);
+
+        // every cell is hinted with the greedy roster
+        PartialVariableAssignment hint = table.getModel().getBuilder().getSolutionHint();
+        Map<Integer, Long> hinted = new HashMap<>();
+        int cells = 0;
+        for (int k = 0; k < hint.getVarsCount(); k++) {
+            hinted.put(hint.getVars(k), hint.getValues(k));
+        }
+        for (int d = 0; d < 31; d++) {
+            for (int s = 0; s < 3; s++) {
+                for (int i = 0; i < 7; i++) {
+                    BoolVar cell = table.get(i, d, s);
+                    if (cell != null) {
+                        cells++;
+                        assertThat(hinted.get(cell.getIndex())).isEqualTo(roster.isOn(i, d, s) ? 1L : 0L);
+                    }
+                }
+            }
+        }
+        assertThat(hinted).hasSize(cells);
+
+        SolveResult result = new SchedulerSolver(table, SolverOptions.builder().maxTimeSeconds(30).build()).run();
+
+        assertThat(result.status()).isEqualTo(CpSolverStatus.OPTIMAL);
+        assertThat(result.objective()).isEqualTo(3);
+    }
+}
@@ -0,0 +1,65 @@
+package org.wiles.scheduler;
+
+import com.google.ortools.Loader;
+import org.assertj.core.groups.Tuple;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class InfeasibilityDiagnosisTest {
+
+    static {
+        Loader.loadNativeLibraries();
+    }
+
+    private Table table(int interns) {
+        return TestTables.table(interns, 14);
+    }
+
+    @Test
+    public void clashingLeaveIsFoundBeforeSearching() {
+        Table table = table(5);
+        // day 5 is a Saturday with two shifts
+        IntStream.range(0, 4).forEach(i -> table.addLeaveDays(i, 5));
+        table.addLeaveDays(4, 1, 2);
+
+        InfeasibilityDiagnosis diagnosis = new InfeasibilityDiagnosis(table);
+        List<InfeasibilityDiagnosis.Conflict> preCheck = diagnosis.preCheck();
+        List<InfeasibilityDiagnosis.Conflict> conflicts = diagnosis.conflicts();
+
+        assertThat(preCheck).extracting(InfeasibilityDiagnosis.Conflict::kind, InfeasibilityDiagnosis.Conflict::day)
+                .contains(Tuple.tuple(InfeasibilityDiagnosis.Kind.COVERAGE, 5));
+        assertThat(conflicts).isNotEmpty();
+        assertThat(conflicts).allMatch(conflict -> conflict.kind() == InfeasibilityDiagnosis.Kind.LEAVE && conflict.day() == 5);
+        assertThat(conflicts).hasSize(4);
+    }
+
+    @Test
+    public void leaveAgainstTheFairnessBoundIsNamed() {
+        Table table = table(5);
+        // 0 is back for two days, time for one shift, but everyone has to work at least three
+        table.addLeaveDays(0, IntStream.range(0, 12).toArray());
+
+        InfeasibilityDiagnosis diagnosis = new InfeasibilityDiagnosis(table);
+        List<InfeasibilityDiagnosis.Conflict> conflicts = diagnosis.conflicts();
+
+        assertThat(diagnosis.preCheck()).anyMatch(conflict -> conflict.intern() == 0 && conflict.kind() == InfeasibilityDiagnosis.Kind.MIN_SHIFTS);
+        assertThat(conflicts).anyMatch(conflict -> conflict.intern() == 0 && conflict.kind() == InfeasibilityDiagnosis.Kind.MIN_SHIFTS);
+        assertThat(conflicts).allMatch(conflict -> conflict.intern() == 0);
+    }
+
+    @Test
+    public void feasibleTableHasNoConflicts() {
+        Table table = table(5);
+        table.addLeaveDays(0, 3, 4);
+        table.addRequests(1, 7);
+
+        InfeasibilityDiagnosis diagnosis = new InfeasibilityDiagnosis(table);
+
+        assertThat(diagnosis.preCheck()).isEmpty();
+        assertThat(diagnosis.conflicts()).isEmpty();
+    }
+}
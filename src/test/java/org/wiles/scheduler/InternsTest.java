@@ -9,10 +9,12 @@ import org.wiles.scheduler.intvars.TableIntVars;
 
 import java.util.Arrays;
 import java.util.Calendar;
+import java.util.List;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.IntPredicate;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -101,6 +103,27 @@ public class InternsTest {
         });
     }
 
+    @Test
+    public void heavierRequestsWinAndCapsLimitWhatCounts() {
+        var table = new Table(Stream.generate(() ->
+                faker.name().lastName()
+        ).limit(5).collect(Collectors.toList()), 8, isWeekEndOfPublicHoliday);
+        // only one of the five interns can miss the weekend
+        table.addRequest(0, Request.weekendOff(6));
+        table.addRequest(1, Request.weekendOff(5).withWeight(3));
+        table.addRequests(2, 0, 1, 2, 3);
+        table.setRequestCap(2, 1);
+        table.addRequest(3, Request.shiftWanted(7, Table.Shift.WEEK_DAY).withWeight(2));
+        SchedulerSolver schedulerSolver = new SchedulerSolver(table);
+
+        assertThat(table.getRequests().get(0)).containsExactly(new Request(Request.Type.WEEKEND_OFF, 5, 6, null, 1));
+        checkSolution(table, schedulerSolver, getValue -> {
+            assertThat(getValue.apply(table.maxRequests)).isEqualTo(3 + 1 + 2);
+            assertThat(Stream.concat(table.getInterns(1, 5).stream(), table.getInterns(1, 6).stream()).map(getValue)).allMatch(x -> x == 0);
+            assertThat(getValue.apply(table.get(3, 7, Table.Shift.WEEK_DAY.ordinal()))).isOne();
+        });
+    }
+
     @Test
     public void CheckEqualisation() {
         var table = new Table(Stream.generate(() ->
@@ -137,6 +160,152 @@ public class InternsTest {
 
     }
 
+    @Test
+    public void runReportsWhyTheSearchStopped() {
+        var table = new Table(Stream.generate(() ->
+                faker.name().lastName()
+        ).limit(7).collect(Collectors.toList()), 31, isWeekEndOfPublicHoliday);
+        table.addLeaveDays(0, 0, 1, 2, 3, 4, 5, 6, 7);
+
+        SolveResult result = new SchedulerSolver(table, SolverOptions.builder().workers(4).maxTimeSeconds(60).build()).run();
+
+        assertThat(result.status()).isEqualTo(CpSolverStatus.OPTIMAL);
+        assertThat(result.stopReason()).isEqualTo(SolveResult.StopReason.OPTIMAL);
+        assertThat(result.workers()).isEqualTo(4);
+        assertThat(result.gap()).isZero();
+    }
+
+    @Test
+    public void resolveFromPreviousRosterMovesFewShifts() {
+        List<String> interns = Stream.generate(() -> faker.name().lastName()).limit(7).collect(Collectors.toList());
+        var published = new Table(interns, 31, isWeekEndOfPublicHoliday);
+        published.addLeaveDays(0, 0, 1, 2, 3, 4, 5, 6, 7);
+        SchedulerSolver schedulerSolver = new SchedulerSolver(published);
+        CpSolver solver = schedulerSolver.solve();
+        assertSame(CpSolverStatus.OPTIMAL, solver.solve(published.getModel()));
+        Roster previous = Roster.of(published, solver);
+
+        int day = Arrays.stream(published.getDayRange()).filter(d -> previous.isOn(3, d, Table.Shift.WEEK_DAY.ordinal())).findFirst().orElseThrow();
+        var edited = new Table(interns, 31, isWeekEndOfPublicHoliday);
+        edited.addLeaveDays(0, 0, 1, 2, 3, 4, 5, 6, 7);
+        edited.addLeaveDays(3, day);
+        edited.setPreviousRoster(previous, true);
+
+        checkSolution(edited, new SchedulerSolver(edited), getValue -> {
+            // leave given before the model is built removes the cell altogether
+            assertThat(edited.get(3, day, Table.Shift.WEEK_DAY.ordinal())).isNull();
+            assertThat(getValue.apply(edited.changes)).isBetween(1L, 6L);
+        });
+    }
+
+    @Test
+    public void metricsRecordEveryPhaseAndTheSearch() {
+        var table = new Table(Stream.generate(() ->
+                faker.name().lastName()
+        ).limit(5).collect(Collectors.toList()), 14, isWeekEndOfPublicHoliday);
+        table.addRequests(1, 2, 3);
+        InMemoryMetrics metrics = new InMemoryMetrics();
+
+        new SchedulerSolver(table, SolverOptions.defaults(), metrics).run();
+
+        assertThat(metrics.getPhases()).extracting(InMemoryMetrics.Phase::phase)
+                .containsExactly("coverage", "distribute shifts", "rest", "leave",
+                        "shift equalisation", "previous roster", "requests", "symmetry breaking");
+        assertThat(metrics.getPhases().stream().mapToLong(InMemoryMetrics.Phase::constraints).sum())
+                .isEqualTo(table.getModel().getBuilder().getConstraintsCount());
+        assertThat(metrics.getProgress()).isNotEmpty();
+        assertThat(metrics.getProgress().get(metrics.getProgress().size() - 1).objective()).isEqualTo(2);
+    }
+
+    @Test
+    public void restAfterWeekendCall() {
+        var table = new Table(Stream.generate(() ->
+                faker.name().lastName()
+        ).limit(8).collect(Collectors.toList()), 31, isWeekEndOfPublicHoliday);
+        table.addRestRule(Table.Shift.WEEKEND, 2);
+
+        SchedulerSolver schedulerSolver = new SchedulerSolver(table);
+        CpSolver solver = schedulerSolver.solve();
+        assertSame(CpSolverStatus.OPTIMAL, solver.solve(table.getModel()));
+        Roster roster = Roster.of(table, solver);
+
+        for (int d = 0; d < table.days; d++) {
+            int intern = roster.assignee(d, Table.Shift.WEEKEND.ordinal());
+            for (int after = d + 1; intern >= 0 && after <= Math.min(table.days - 1, d + 2); after++) {
+                for (Table.Shift shift : Table.Shift.values()) {
+                    assertThat(roster.isOn(intern, after, shift.ordinal())).isFalse();
+                }
+            }
+        }
+    }
+
+    @Test
+    public void interchangeableInternsAreGrouped() {
+        var table = new Table(Stream.generate(() ->
+                faker.name().lastName()
+        ).limit(6).collect(Collectors.toList()), 31, isWeekEndOfPublicHoliday);
+        table.addLeaveDays(0, 3, 4);
+        table.addLeaveDays(1, 3, 4);
+        table.addRequests(2, 10);
+
+        SchedulerSolver schedulerSolver = new SchedulerSolver(table);
+        CpSolver solver = schedulerSolver.solve();
+
+        assertThat(schedulerSolver.getSymmetryClasses()).containsExactly(new int[]{0, 1}, new int[]{3, 4, 5});
+        assertSame(CpSolverStatus.OPTIMAL, solver.solve(table.getModel()));
+    }
+
+    @Test
+    public void stagedObjectivesKeepEarlierOptima() {
+        var table = new Table(Stream.generate(() ->
+                faker.name().lastName()
+        ).limit(6).collect(Collectors.toList()), 31, isWeekEndOfPublicHoliday);
+        table.addRequests(0, 5, 6, 12, 13);
+        table.addRequests(3, 0, 1, 2);
+
+        ObjectivePipeline.Result result = new ObjectivePipeline(table, SolverOptions.builder().maxTimeSeconds(5).build()).run();
+
+        assertThat(result.stages()).extracting(ObjectivePipeline.StageResult::stage).containsExactly(
+                ObjectivePipeline.Stage.REQUESTS, ObjectivePipeline.Stage.HOUR_SPREAD);
+        assertThat(result.stages()).allSatisfy(stage -> assertThat(stage.result().hasSolution()).isTrue());
+        assertThat(result.stages().get(0).value()).isEqualTo(7);
+
+        int[] hours = new int[6];
+        for (int d : table.getDayRange()) {
+            for (Table.Shift shift : Table.Shift.values()) {
+                int intern = result.roster().assignee(d, shift.ordinal());
+                if (intern >= 0) {
+                    hours[intern] += shift.hours;
+                }
+            }
+        }
+        assertThat(Arrays.stream(hours).max().orElseThrow() - Arrays.stream(hours).min().orElseThrow())
+                .isEqualTo(result.stages().get(1).value());
+    }
+
+    @Test
+    public void partTimeInternWorksTheirShare() {
+        List<String> interns = Stream.generate(() -> faker.name().lastName()).limit(6).collect(Collectors.toList());
+        long[] spread = new long[2];
+        for (boolean balanceHours : new boolean[]{false, true}) {
+            var table = new Table(interns, 31, isWeekEndOfPublicHoliday);
+            table.setFte(0, 50);
+            SolverOptions options = SolverOptions.builder().workers(1).balanceHours(balanceHours).maxTimeSeconds(5).build();
+            CpSolver solver = new SchedulerSolver(table, options).solve();
+
+            assertThat(solver.solve(table.getModel())).isIn(CpSolverStatus.OPTIMAL, CpSolverStatus.FEASIBLE);
+            // 39 shifts over 5.5 full-time posts
+            assertThat(SchedulerSolver.shiftBounds(table, 0)).containsExactly(3, 4);
+            assertThat(SchedulerSolver.shiftBounds(table, 1)).containsExactly(7, 8);
+            Roster roster = Roster.of(table, solver);
+            assertThat(roster.shifts(0)).isBetween(3, 4);
+            IntStream.range(1, 6).forEach(i -> assertThat(roster.shifts(i)).isBetween(7, 8));
+            spread[balanceHours ? 1 : 0] = solver.value(table.hourSpread);
+        }
+        // the spread is measured against each intern's share, so balancing brings the part-timer in line too
+        assertThat(spread[1]).isLessThan(spread[0]);
+    }
+
     private static void checkSolution(Table table, SchedulerSolver schedulerSolverIntVars, Consumer<Function<LinearArgument, Long>> validate) {
         CpSolver solver = schedulerSolverIntVars.solve();
         CpSolverStatus status = solver.solve(table.getModel());
@@ -0,0 +1,101 @@
+package org.wiles.scheduler;
+
+import com.google.ortools.Loader;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RollingHorizonSolverTest {
+
+    static {
+        Loader.loadNativeLibraries();
+    }
+
+    @Test
+    public void stitchedRosterKeepsTheRulesAcrossWindows() {
+        int days = 61;
+        RosterSpec spec = RosterSpec.of(TestTables.interns(7), TestTables.july(days))
+                .withLeaveDays(0, IntStream.range(10, 20).toArray())
+                .withRequests(1, 5, 6, 30);
+        var solver = new RollingHorizonSolver(spec, 14, 3, SolverOptions.builder().maxTimeSeconds(20).build());
+
+        RollingHorizonSolver.Result result = solver.solve(true);
+        Roster roster = result.roster();
+
+        assertThat(result.windows()).isEqualTo(6);
+        assertThat(roster.days()).isEqualTo(days);
+        for (int d = 0; d < days; d++) {
+            if (spec.isWeekEndOrPublicHoliday(d)) {
+                assertThat(roster.assignee(d, Table.Shift.WEEKEND.ordinal())).isNotNegative();
+                assertThat(roster.assignee(d, Table.Shift.WEEKEND_SHORTCALL.ordinal())).isNotNegative();
+            } else {
+                assertThat(roster.assignee(d, Table.Shift.WEEK_DAY.ordinal())).isNotNegative();
+            }
+            if (d > 0) {
+                for (int today : new int[]{roster.assignee(d, 0), roster.assignee(d, 1), roster.assignee(d, 2)}) {
+                    if (today >= 0) {
+                        assertThat(roster.assignee(d - 1, 0)).isNotEqualTo(today);
+                        assertThat(roster.assignee(d - 1, 1)).isNotEqualTo(today);
+                        assertThat(roster.assignee(d - 1, 2)).isNotEqualTo(today);
+                    }
+                }
+            }
+        }
+        IntStream.range(10, 20).forEach(d -> assertThat(IntStream.range(0, 3).map(s -> roster.assignee(d, s))).doesNotContain(0));
+        // the requests are easy to honour, so the windows give up nothing against one model
+        assertThat(result.monolithic().hasSolution()).isTrue();
+        assertThat(result.requestsHonoured()).isEqualTo(3);
+        assertThat(result.gap()).isZero();
+    }
+
+    @Test
+    public void gapComparesTheWholeObjective() {
+        RosterSpec spec = RosterSpec.of(TestTables.interns(6), TestTables.july(28))
+                .withRequests(1, 5, 6)
+                .withRequests(2, 20);
+        SolverOptions options = SolverOptions.builder().balanceHours(true).maxTimeSeconds(5).build();
+
+        RollingHorizonSolver.Result result = new RollingHorizonSolver(spec, 14, 3, options).solve(true);
+
+        assertThat(result.monolithic().hasSolution()).isTrue();
+        // both honour every request and differ only in the hour spread, a small part of an objective that weighs
+        // each request above any spread
+        assertThat(result.requestsHonoured()).isEqualTo(3);
+        assertThat(result.objective()).isGreaterThan(result.requestsHonoured());
+        assertThat(result.gap()).isBetween(-0.1, 0.1);
+    }
+
+    @Test
+    public void partTimerWorksTheirShareOverTheHorizon() {
+        int days = 61;
+        RosterSpec spec = RosterSpec.of(TestTables.interns(7), TestTables.july(days)).withFte(0, 50);
+        var solver = new RollingHorizonSolver(spec, 14, 3, SolverOptions.builder().maxTimeSeconds(20).build());
+
+        Roster roster = solver.solve().roster();
+
+        // Adams is half time: 6.5 full-time contracts share the 61 days' shifts
+        int total = IntStream.range(0, 7).map(roster::shifts).sum();
+        assertThat(roster.shifts(0)).isBetween((int) Math.floor(total / 13.0) - 1, (int) Math.ceil(total / 13.0) + 1);
+    }
+
+    @Test
+    public void internBackFromLongLeaveCatchesUpOverSeveralWindows() {
+        int days = 61;
+        // Adams is away for the days the first window keeps and most of the second; carrying all they missed would ask
+        // for 4 shifts in the 3 days between
+        RosterSpec spec = RosterSpec.of(TestTables.interns(7), TestTables.july(days))
+                .withLeaveDays(0, IntStream.concat(IntStream.range(0, 11), IntStream.range(14, 25)).toArray());
+        var solver = new RollingHorizonSolver(spec, 14, 3, SolverOptions.builder().maxTimeSeconds(20).build());
+
+        Roster roster = solver.solve().roster();
+
+        List<RosterValidator.Violation> violations = new RosterValidator(spec.toTable()).validate(roster).violations();
+        // the split is judged per window, not over the whole horizon
+        assertThat(violations).extracting(RosterValidator.Violation::kind)
+                .doesNotContain(RosterValidator.Kind.UNCOVERED, RosterValidator.Kind.UNAVAILABLE, RosterValidator.Kind.REST);
+        assertThat(roster.shifts(0)).isPositive();
+    }
+}
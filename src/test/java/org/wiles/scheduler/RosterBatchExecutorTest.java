@@ -0,0 +1,92 @@
+package org.wiles.scheduler;
+
+import com.google.ortools.Loader;
+import com.google.ortools.sat.CpSolverStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RosterBatchExecutorTest {
+
+    static {
+        Loader.loadNativeLibraries();
+    }
+
+    private Table department(int interns) {
+        return TestTables.table(interns, 31);
+    }
+
+    @Test
+    public void solvesEveryDepartmentWithinTheBudget() {
+        try (var executor = new RosterBatchExecutor(2, 512)) {
+            List<CompletableFuture<RosterBatchExecutor.BatchResult>> results = Stream.of("medicine", "surgery", "paediatrics", "O&G")
+                    .map(name -> executor.submit(name, () -> department(6),
+                            SolverOptions.builder().workers(4).maxTimeSeconds(30).build()))
+                    .toList();
+
+            assertThat(results).allSatisfy(result -> {
+                RosterBatchExecutor.BatchResult batchResult = result.join();
+                assertThat(batchResult.result().status()).isEqualTo(CpSolverStatus.OPTIMAL);
+                assertThat(batchResult.result().workers()).isEqualTo(2);
+                assertThat(batchResult.roster().days()).isEqualTo(31);
+            });
+        }
+    }
+
+    @Test
+    public void cancelledJobsDoNotComplete() {
+        try (var executor = new RosterBatchExecutor(1, 512)) {
+            CompletableFuture<RosterBatchExecutor.BatchResult> cancelled = executor.submit("surgery", () -> department(40),
+                    SolverOptions.builder().maxTimeSeconds(30).build());
+            CompletableFuture<RosterBatchExecutor.BatchResult> kept = executor.submit("medicine", () -> department(6),
+                    SolverOptions.builder().maxTimeSeconds(30).build());
+
+            assertThat(cancelled.cancel(true)).isTrue();
+            assertThat(kept.join().result().hasSolution()).isTrue();
+            assertThat(cancelled).isCancelled();
+        }
+    }
+
+    @Test
+    public void cancellingARunningSearchReleasesItsBudget() throws InterruptedException {
+        try (var executor = new RosterBatchExecutor(1, 512)) {
+            // proving the hour spread optimal takes far longer than the limit
+            CompletableFuture<RosterBatchExecutor.BatchResult> running = executor.submit("surgery", () -> department(20),
+                    SolverOptions.builder().workers(1).balanceHours(true).maxTimeSeconds(120).build());
+            Thread.sleep(2000);
+            long start = System.nanoTime();
+            assertThat(running.cancel(true)).isTrue();
+
+            CompletableFuture<RosterBatchExecutor.BatchResult> next = executor.submit("medicine", () -> department(6),
+                    SolverOptions.builder().workers(1).maxTimeSeconds(30).build());
+            assertThat(next.join().result().hasSolution()).isTrue();
+            assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(30));
+        }
+    }
+
+    @Test
+    public void aLargeBatchQueuesOnOneThreadPerCore() throws InterruptedException {
+        try (var executor = new RosterBatchExecutor(1, 512)) {
+            // the first search holds the only core for far longer than the test
+            List<CompletableFuture<RosterBatchExecutor.BatchResult>> jobs = new ArrayList<>();
+            jobs.add(executor.submit("surgery", () -> department(20),
+                    SolverOptions.builder().workers(1).balanceHours(true).maxTimeSeconds(120).build()));
+            for (int k = 0; k < 8; k++) {
+                jobs.add(executor.submit("ward " + k, () -> department(6),
+                        SolverOptions.builder().workers(1).maxTimeSeconds(30).build()));
+            }
+            Thread.sleep(2000);
+
+            assertThat(Thread.getAllStackTraces().keySet())
+                    .filteredOn(thread -> thread.getName().startsWith("roster-batch-solve-")).hasSize(1);
+            jobs.forEach(job -> job.cancel(true));
+            assertThat(jobs).allMatch(CompletableFuture::isCancelled);
+        }
+    }
+}
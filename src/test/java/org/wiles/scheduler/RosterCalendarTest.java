@@ -0,0 +1,59 @@
+package org.wiles.scheduler;
+
+import com.google.ortools.Loader;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RosterCalendarTest {
+
+    static {
+        Loader.loadNativeLibraries();
+    }
+
+    @Test
+    public void southAfricanHolidays() {
+        var holidays = PublicHolidays.load("ZA").between(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31));
+
+        assertThat(PublicHolidays.easter(2024)).isEqualTo(LocalDate.of(2024, 3, 31));
+        assertThat(PublicHolidays.easter(2025)).isEqualTo(LocalDate.of(2025, 4, 20));
+        assertThat(holidays).containsKeys(
+                LocalDate.of(2024, 3, 29), // Good Friday
+                LocalDate.of(2024, 4, 1), // Family Day
+                LocalDate.of(2024, 5, 29), // elections
+                LocalDate.of(2024, 6, 17)); // Youth Day fell on a Sunday
+        assertThat(holidays).hasSize(14);
+    }
+
+    @Test
+    public void publicHolidaysRunWeekendShifts() {
+        // June 2024: Youth Day on Sunday the 16th (day 15), observed on Monday the 17th (day 16)
+        RosterCalendar calendar = RosterCalendar.of(LocalDate.of(2024, 6, 1), 30, "ZA");
+        Table table = new Table(List.of("Adams", "Botha", "Cele", "Dlamini"), calendar);
+
+        assertThat(calendar.dayType(16)).isEqualTo(RosterCalendar.DayType.PUBLIC_HOLIDAY);
+        assertThat(calendar.dayType(17)).isEqualTo(RosterCalendar.DayType.WEEKDAY);
+        assertThat(calendar.holiday(16)).isEqualTo("Youth Day (observed)");
+        assertThat(table.getWeekEndDays()).contains(15, 16).doesNotContain(17);
+        assertThat(IntStream.concat(table.getWeekDays(), table.getWeekEndDays()).sorted())
+                .containsExactlyElementsOf(IntStream.range(0, 30).boxed().toList());
+        assertThat(table.runs(16, Table.Shift.WEEKEND.ordinal())).isTrue();
+        assertThat(table.runs(16, Table.Shift.WEEK_DAY.ordinal())).isFalse();
+    }
+
+    @Test
+    public void shiftsPerDayType() {
+        RosterCalendar calendar = RosterCalendar.of(LocalDate.of(2024, 6, 1), 30, "ZA")
+                .withShifts(RosterCalendar.DayType.PUBLIC_HOLIDAY, Table.Shift.WEEKEND);
+        Table table = new Table(List.of("Adams", "Botha", "Cele", "Dlamini"), calendar);
+
+        assertThat(table.runs(16, Table.Shift.WEEKEND_SHORTCALL.ordinal())).isFalse();
+        assertThat(table.runs(14, Table.Shift.WEEKEND_SHORTCALL.ordinal())).isTrue();
+        assertThat(calendar).isNotEqualTo(RosterCalendar.of(LocalDate.of(2024, 6, 1), 30, "ZA"));
+        assertThat(calendar.subCalendar(10, 20).dayType(6)).isEqualTo(RosterCalendar.DayType.PUBLIC_HOLIDAY);
+    }
+}
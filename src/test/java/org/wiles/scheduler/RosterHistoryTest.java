@@ -0,0 +1,154 @@
+package org.wiles.scheduler;
+
+import com.google.ortools.Loader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RosterHistoryTest {
+
+    static {
+        Loader.loadNativeLibraries();
+    }
+
+    private static final LocalDate JUNE = TestTables.JUNE;
+    private static final List<String> INTERNS = TestTables.interns(5);
+
+    @Test
+    public void juneCarriesIntoJuly(@TempDir Path dir) {
+        Table june = new Table(INTERNS, TestTables.june(30));
+        // Adams is away for June, so comes into July behind; the others take turns
+        int[][] assignees = new int[30][3];
+        int next = 0;
+        for (int d = 0; d < 30; d++) {
+            for (int s = 0; s < 3; s++) {
+                assignees[d][s] = june.runs(d, s) ? 1 + next++ % 4 : -1;
+            }
+        }
+        // Baker works the last day, so is still resting on the first day of July
+        assignees[29][Table.Shift.WEEKEND.ordinal()] = 1;
+        assertThat(june.runs(29, Table.Shift.WEEKEND.ordinal())).isTrue();
+        Roster roster = new Roster(INTERNS.size(), assignees);
+
+        Path file = dir.resolve("history.bin");
+        RosterHistory.create(file, INTERNS, JUNE).append(INTERNS, roster);
+        RosterHistory history = RosterHistory.open(file);
+
+        assertThat(history.days()).isEqualTo(30);
+        assertThat(history.interns()).isEqualTo(INTERNS);
+        assertThat(history.start()).isEqualTo(JUNE);
+        for (int i = 0; i < INTERNS.size(); i++) {
+            int intern = i;
+            int[] worked = history.shifts(INTERNS.get(i), 0, 30);
+            for (Table.Shift shift : Table.Shift.values()) {
+                assertThat(worked[shift.ordinal()]).isEqualTo(
+                        IntStream.range(0, 30).filter(d -> roster.isOn(intern, d, shift.ordinal())).count());
+            }
+        }
+
+        // a new intern joins in July
+        List<String> julyInterns = TestTables.interns(6);
+        Table july = new Table(julyInterns, TestTables.july(31));
+        history.carryOver(july);
+
+        for (Table.Shift shift : Table.Shift.values()) {
+            // Adams is far behind, but only carries the most the cap allows; Fox counts as at their share
+            assertThat(july.getPriorShifts(0, shift)).isZero();
+            assertThat(july.getPriorShifts(5, shift)).isEqualTo(RosterHistory.MAX_CARRY);
+            for (int i = 1; i < 5; i++) {
+                assertThat(july.getPriorShifts(i, shift)).isBetween(0, 2 * RosterHistory.MAX_CARRY);
+            }
+        }
+        assertThat(july.getLastShiftDay(1)).isEqualTo(-1);
+        assertThat(july.getLastShift(1)).isEqualTo(Table.Shift.WEEKEND);
+        assertThat(new SchedulerSolver(july, SolverOptions.builder().maxTimeSeconds(30).build()).run().hasSolution()).isTrue();
+    }
+
+    @Test
+    public void partTimersAreCarriedAgainstTheirShare(@TempDir Path dir) {
+        List<String> interns = INTERNS.subList(0, 3);
+        Table june = new Table(interns, TestTables.june(30));
+        // Adams is half time and worked exactly half of what each of the others did
+        int[] weekDays = IntStream.range(0, 30).filter(d -> june.runs(d, Table.Shift.WEEK_DAY.ordinal())).toArray();
+        int[] weekendDays = IntStream.range(0, 30).filter(d -> june.runs(d, Table.Shift.WEEKEND.ordinal())).toArray();
+        assertThat(weekDays).hasSize(20);
+        assertThat(weekendDays).hasSize(10);
+        int[][] assignees = new int[30][3];
+        for (int[] day : assignees) {
+            Arrays.fill(day, -1);
+        }
+        for (int k = 0; k < 20; k++) {
+            assignees[weekDays[k]][Table.Shift.WEEK_DAY.ordinal()] = k < 4 ? 0 : k < 12 ? 1 : 2;
+        }
+        int[] weekend = {0, 0, 1, 1, 1, 1, 2, 2, 2, 2};
+        int[] shortCall = {2, 2, 0, 0, 2, 2, 1, 1, 1, 1};
+        for (int k = 0; k < 10; k++) {
+            assignees[weekendDays[k]][Table.Shift.WEEKEND.ordinal()] = weekend[k];
+            assignees[weekendDays[k]][Table.Shift.WEEKEND_SHORTCALL.ordinal()] = shortCall[k];
+        }
+        Path file = dir.resolve("history.bin");
+        RosterHistory history = RosterHistory.create(file, interns, JUNE);
+        history.append(interns, new Roster(interns.size(), assignees));
+
+        Table july = new Table(interns, TestTables.july(31));
+        july.setFte(0, 50);
+        history.carryOver(july);
+        Table fresh = new Table(interns, TestTables.july(31));
+        fresh.setFte(0, 50);
+
+        // everyone is at their share, so each is carried only the base, half as much for Adams
+        for (Table.Shift shift : Table.Shift.values()) {
+            assertThat(july.getPriorShifts(0, shift)).isEqualTo(RosterHistory.MAX_CARRY);
+            assertThat(july.getPriorShifts(1, shift)).isEqualTo(2 * RosterHistory.MAX_CARRY);
+            assertThat(july.getPriorShifts(2, shift)).isEqualTo(2 * RosterHistory.MAX_CARRY);
+        }
+        // and nobody's split of July moves
+        for (int i = 0; i < interns.size(); i++) {
+            int[] carried = SchedulerSolver.shiftBounds(july, i);
+            int[] uncarried = SchedulerSolver.shiftBounds(fresh, i);
+            assertThat(carried[0] - july.getPriorShifts(i)).isEqualTo(uncarried[0]);
+            assertThat(carried[1] - july.getPriorShifts(i)).isEqualTo(uncarried[1]);
+        }
+    }
+
+    @Test
+    public void newInternsWidenTheHistory(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("history.bin");
+        RosterHistory history = RosterHistory.create(file, List.of(), JUNE);
+        assertThat(history.days()).isZero();
+
+        Table june = new Table(INTERNS.subList(0, 4), TestTables.june(30));
+        Roster juneRoster = new GreedyRosterBuilder(june).build(1).roster();
+        history.append(june.getInterns(), juneRoster);
+
+        // Fox joins in July, listed first
+        List<String> julyInterns = List.of("Fox", "Adams", "Baker", "Clark", "Davis");
+        Table july = new Table(julyInterns, TestTables.july(31));
+        Roster julyRoster = new GreedyRosterBuilder(july).build(1).roster();
+        history.append(julyInterns, julyRoster);
+
+        RosterHistory reopened = RosterHistory.open(file);
+        assertThat(reopened.interns()).containsExactly("Adams", "Baker", "Clark", "Davis", "Fox");
+        assertThat(reopened.days()).isEqualTo(61);
+        for (int i = 0; i < 4; i++) {
+            assertThat(reopened.hours(INTERNS.get(i), 0, 30)).isEqualTo(juneRoster.hours(i));
+            assertThat(reopened.hours(INTERNS.get(i), 30, 61)).isEqualTo(julyRoster.hours(i + 1));
+        }
+        assertThat(reopened.hours("Fox", 0, 30)).isZero();
+        assertThat(reopened.hours("Fox", 30, 61)).isEqualTo(julyRoster.hours(0));
+        // the wider file replaced the old one, nothing is left beside it
+        try (Stream<Path> files = Files.list(dir)) {
+            assertThat(files).containsExactly(file);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package org.wiles.scheduler;
+
+import com.google.ortools.Loader;
+import com.google.ortools.sat.CpSolver;
+import com.google.ortools.sat.CpSolverStatus;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class RosterRepairTest {
+
+    static {
+        Loader.loadNativeLibraries();
+    }
+
+    private static final List<String> INTERNS = TestTables.interns(7);
+
+    private Table table() {
+        Table table = TestTables.table(INTERNS.size(), 31);
+        table.addRequests(1, 10, 11);
+        table.addRequests(2, 20);
+        return table;
+    }
+
+    @Test
+    public void sickDayMovesOnlyShiftsNearby() {
+        Table published = table();
+        CpSolver solver = new SchedulerSolver(published, SolverOptions.builder().maxTimeSeconds(30).build()).solve();
+        assertThat(solver.solve(published.getModel())).isEqualTo(CpSolverStatus.OPTIMAL);
+        Roster current = Roster.of(published, solver);
+        // day 17 is a Thursday, one shift
+        int sick = current.assignee(17, Table.Shift.WEEK_DAY.ordinal());
+
+        Table changed = table();
+        changed.addLeaveDays(sick, 17);
+        RosterRepair.Result result = new RosterRepair(changed, current, SolverOptions.builder().maxTimeSeconds(10).build())
+                .lockDaysBefore(17)
+                .repair(17, 17, 2);
+
+        Roster repaired = result.roster();
+        assertThat(repaired.isOn(sick, 17, Table.Shift.WEEK_DAY.ordinal())).isFalse();
+        assertThat(result.fromDay()).isEqualTo(17);
+        assertThat(result.freeInterns()).contains(sick);
+        List<Roster.Change> changes = current.diff(repaired);
+        assertThat(result.changed()).isPositive().isEqualTo(changes.size());
+        // only the free interns move, and only within the days of the neighbourhood
+        Set<Integer> moved = new HashSet<>();
+        for (Roster.Change change : changes) {
+            assertThat(change.day()).isBetween(result.fromDay(), result.toDay());
+            moved.add(change.before());
+            moved.add(change.after());
+        }
+        assertThat(result.freeInterns()).containsAll(moved);
+        assertThat(result.interns()).isEqualTo(moved.size());
+        IntStream.range(0, INTERNS.size()).filter(i -> !result.freeInterns().contains(i)).forEach(i ->
+                IntStream.range(0, 31).forEach(d -> assertThat(repaired.isWorking(i, d)).isEqualTo(current.isWorking(i, d))));
+    }
+
+    @Test
+    public void rejectsDaysOutsideTheTable() {
+        Table table = table();
+        Roster current = new GreedyRosterBuilder(table).build(1).roster();
+        RosterRepair repair = new RosterRepair(table, current, SolverOptions.defaults()).lockDaysBefore(10);
+
+        assertThatThrownBy(() -> repair.repair(12, 11, 2)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> repair.repair(-1, 3, 2)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> repair.repair(30, 31, 2)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> repair.repair(5, 6, 2)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,74 @@
+package org.wiles.scheduler;
+
+import org.junit.jupiter.api.Test;
+import org.wiles.scheduler.Table.Shift;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RosterTest {
+
+    /**
+     * 100 days, weekends on days 5 and 6 of each week, interns taking turns.
+     */
+    private static int[][] turns(int interns) {
+        int[][] assignees = new int[100][3];
+        int next = 0;
+        for (int d = 0; d < 100; d++) {
+            boolean weekend = d % 7 >= 5;
+            assignees[d][Shift.WEEK_DAY.ordinal()] = weekend ? -1 : next++ % interns;
+            assignees[d][Shift.WEEKEND.ordinal()] = weekend ? next++ % interns : -1;
+            assignees[d][Shift.WEEKEND_SHORTCALL.ordinal()] = weekend ? next++ % interns : -1;
+        }
+        return assignees;
+    }
+
+    @Test
+    public void answersPerInternQueriesFromTheBitsets() {
+        int[][] assignees = turns(5);
+        Roster roster = new Roster(6, assignees);
+
+        assertThat(roster.interns()).isEqualTo(6);
+        int total = 0;
+        for (int i = 0; i < 6; i++) {
+            int shifts = 0;
+            int hours = 0;
+            for (int d = 0; d < 100; d++) {
+                boolean working = false;
+                for (Shift shift : Shift.values()) {
+                    if (assignees[d][shift.ordinal()] == i) {
+                        shifts++;
+                        hours += shift.hours;
+                        working = true;
+                    }
+                }
+                assertThat(roster.isWorking(i, d)).isEqualTo(working);
+                assertThat((roster.workedDays(i)[d / 64] & 1L << d) != 0).isEqualTo(working);
+            }
+            assertThat(roster.shifts(i)).isEqualTo(shifts);
+            assertThat(roster.hours(i)).isEqualTo(hours);
+            total += shifts;
+        }
+        assertThat(roster.shifts(5)).isZero();
+        // 72 week days and 28 weekend days of two shifts
+        assertThat(total).isEqualTo(72 + 2 * 28);
+    }
+
+    @Test
+    public void diffsAndRoundTripsThroughBytes() {
+        int[][] assignees = turns(5);
+        Roster roster = new Roster(5, assignees);
+        int[][] edited = turns(5);
+        edited[70][Shift.WEEK_DAY.ordinal()] = 4;
+        edited[75][Shift.WEEKEND.ordinal()] = -1;
+        Roster other = new Roster(5, edited);
+
+        assertThat(roster.diff(other)).containsExactly(
+                new Roster.Change(70, Shift.WEEK_DAY.ordinal(), assignees[70][0], 4),
+                new Roster.Change(75, Shift.WEEKEND.ordinal(), assignees[75][1], -1));
+        assertThat(roster.changes(other)).isEqualTo(2);
+        assertThat(roster.diff(roster)).isEmpty();
+
+        assertThat(Roster.fromBytes(roster.toBytes())).isEqualTo(roster);
+        assertThat(roster.subRoster(70, 80).assignee(0, Shift.WEEK_DAY.ordinal())).isEqualTo(assignees[70][0]);
+    }
+}
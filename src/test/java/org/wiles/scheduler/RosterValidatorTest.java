@@ -0,0 +1,75 @@
+package org.wiles.scheduler;
+
+import com.google.ortools.Loader;
+import com.google.ortools.sat.CpSolver;
+import com.google.ortools.sat.CpSolverStatus;
+import org.junit.jupiter.api.Test;
+import org.wiles.scheduler.RosterValidator.Kind;
+import org.wiles.scheduler.RosterValidator.Violation;
+import org.wiles.scheduler.Table.Shift;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RosterValidatorTest {
+
+    static {
+        Loader.loadNativeLibraries();
+    }
+
+    private static final List<String> INTERNS = TestTables.interns(7);
+
+    private Table table() {
+        Table table = TestTables.table(INTERNS.size(), 31);
+        table.addLeaveDays(0, 3, 4, 5, 6);
+        table.addBlock(4, Table.Unavailability.EXAM, 20, 21);
+        table.addRequests(1, 10, 11);
+        table.addRequest(2, Request.weekendOff(13).withWeight(2));
+        table.addRestRule(Shift.WEEKEND, 2);
+        return table;
+    }
+
+    @Test
+    public void agreesWithTheSolver() {
+        Table table = table();
+        CpSolver solver = new SchedulerSolver(table, SolverOptions.builder().balanceHours(true).maxTimeSeconds(10).build()).solve();
+        assertThat(solver.solve(table.getModel())).isIn(CpSolverStatus.OPTIMAL, CpSolverStatus.FEASIBLE);
+
+        RosterValidator.Result result = new RosterValidator(table).validate(Roster.of(table, solver));
+
+        assertThat(result.violations()).isEmpty();
+        assertThat(result.requestsHonoured()).isEqualTo(solver.value(table.maxRequests));
+        assertThat(result.hourSpread()).isEqualTo(solver.value(table.hourSpread));
+    }
+
+    @Test
+    public void findsEveryBrokenRuleOfAnEditedRoster() {
+        Table table = table();
+        RosterValidator validator = new RosterValidator(table);
+        Roster roster = new GreedyRosterBuilder(table).build(1, 20).roster();
+        assertThat(validator.isValid(roster)).isTrue();
+
+        int[][] edited = new int[31][3];
+        for (int d = 0; d < 31; d++) {
+            for (int s = 0; s < 3; s++) {
+                edited[d][s] = roster.assignee(d, s);
+            }
+        }
+        int weekDay = Shift.WEEK_DAY.ordinal();
+        // Adams on leave, nobody on day 8, and Baker on two days running
+        edited[3][weekDay] = 0;
+        edited[8][weekDay] = -1;
+        edited[9][weekDay] = 1;
+        edited[10][weekDay] = 1;
+        Roster broken = new Roster(INTERNS.size(), edited);
+
+        RosterValidator.Result result = validator.validate(broken);
+        assertThat(validator.isValid(broken)).isFalse();
+        assertThat(result.violations()).contains(
+                new Violation(Kind.UNAVAILABLE, 0, 3, -1),
+                new Violation(Kind.UNCOVERED, -1, 8, weekDay),
+                new Violation(Kind.REST, 1, 9, -1));
+        assertThat(result.violations()).extracting(Violation::kind).doesNotContain(Kind.NOT_RUNNING);
+    }
+}
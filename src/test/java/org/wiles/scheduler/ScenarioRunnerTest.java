@@ -0,0 +1,47 @@
+package org.wiles.scheduler;
+
+import com.google.ortools.Loader;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ScenarioRunnerTest {
+
+    static {
+        Loader.loadNativeLibraries();
+    }
+
+    private static final List<String> INTERNS = TestTables.interns(7);
+
+    @Test
+    public void scenariosShareTheBaseModelUnlessTheInternsChange() {
+        RosterSpec base = RosterSpec.of(INTERNS, TestTables.july(31))
+                .withRequests(1, 5, 6)
+                .withRequests(2, 12);
+        CompiledModelCache cache = new CompiledModelCache(4);
+        ScenarioRunner runner = new ScenarioRunner(cache, SolverOptions.builder().workers(2).maxTimeSeconds(20).build(), 2);
+
+        ScenarioRunner.Comparison comparison = runner.run(base, List.of(
+                Scenario.named("Adams on leave 10-14").leave(0, 10, 11, 12, 13, 14),
+                Scenario.named("Baker works the weekend").withoutRequests(1, 5, 6),
+                Scenario.named("Hlongwane joins").addIntern("Hlongwane")));
+
+        assertThat(comparison.base().requestsHonoured()).isEqualTo(3);
+        assertThat(comparison.ranked()).hasSize(3).allMatch(ScenarioRunner.Outcome::hasRoster);
+        assertThat(comparison.ranked()).isSortedAccordingTo(ScenarioRunner.RANKING);
+        ScenarioRunner.Outcome leave = comparison.ranked().stream().filter(o -> o.name().startsWith("Adams")).findFirst().orElseThrow();
+        assertThat(leave.rebuilt()).isFalse();
+        for (int d = 10; d <= 14; d++) {
+            for (int s = 0; s < 3; s++) {
+                assertThat(leave.roster().isOn(0, d, s)).isFalse();
+            }
+        }
+        ScenarioRunner.Outcome joins = comparison.ranked().stream().filter(o -> o.name().startsWith("Hlongwane")).findFirst().orElseThrow();
+        assertThat(joins.rebuilt()).isTrue();
+        assertThat(joins.changes()).isPositive();
+        // the base and every overlay of it share one compiled model, the new intern needs another
+        assertThat(cache.misses()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,79 @@
+package org.wiles.scheduler;
+
+import com.google.ortools.Loader;
+import com.google.ortools.sat.CpSolverSolutionCallback;
+import com.google.ortools.sat.CpSolverStatus;
+import org.junit.jupiter.api.Test;
+import org.wiles.scheduler.intvars.SchedulerSolverIntVars;
+import org.wiles.scheduler.intvars.TableIntVars;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.wiles.scheduler.RosterCalendar.DayType.*;
+
+public class ShiftLayoutTest {
+
+    static {
+        Loader.loadNativeLibraries();
+    }
+
+    private static final List<String> INTERNS = List.of("Adams", "Baker", "Clark", "Davis", "Evans", "Fox", "Green", "Hill");
+
+    // Monday 1 July 2024
+    private final RosterCalendar week = RosterCalendar.of(LocalDate.of(2024, 7, 1), 7);
+
+    @Test
+    public void onlyCellsOfShiftsThatRunAreAllocated() {
+        ShiftCatalog catalog = ShiftCatalog.of(
+                ShiftType.of("DAY", 12, 2, WEEKDAY),
+                ShiftType.of("NIGHT", 12, 1, WEEKDAY, WEEKEND),
+                ShiftType.of("WEEKEND", 24, 1, WEEKEND),
+                ShiftType.of("SHORT", 6, 1, WEEKEND),
+                ShiftType.of("HOLIDAY", 24, 1, PUBLIC_HOLIDAY));
+        ShiftLayout layout = ShiftLayout.of(week, catalog);
+
+        // 5 week days of DAY and NIGHT, 2 weekend days of NIGHT, WEEKEND and SHORT, no public holiday
+        assertThat(layout.slots()).isEqualTo(5 * 2 + 2 * 3);
+        assertThat(layout.requiredShifts()).isEqualTo(5 * 3 + 2 * 3);
+        assertThat(layout.slot(0, catalog.indexOf("WEEKEND"))).isEqualTo(-1);
+        assertThat(layout.slot(5, catalog.indexOf("WEEKEND"))).isEqualTo(layout.firstSlot(5) + 1);
+        assertThat(layout.endSlot(6)).isEqualTo(layout.slots());
+
+        TableIntVars table = new TableIntVars(INTERNS, week, catalog);
+        assertThat(table.size()).isEqualTo(layout.slots() * INTERNS.size());
+        assertThat(table.getDay(0, catalog.indexOf("DAY"), catalog.indexOf("HOLIDAY"))).hasSize(INTERNS.size());
+        assertThat(table.getInterns(0, 5)).hasSize(3);
+
+        List<Long> staffed = new ArrayList<>();
+        CpSolverStatus status = new SchedulerSolverIntVars(table).solve(SolverOptions.builder().maxTimeSeconds(10).build(),
+                new CpSolverSolutionCallback() {
+                    @Override
+                    public void onSolutionCallback() {
+                        staffed.clear();
+                        for (int slot = 0; slot < layout.slots(); slot++) {
+                            staffed.add(Arrays.stream(table.getSlot(slot)).mapToLong(this::value).sum());
+                        }
+                    }
+                });
+        assertThat(status).isEqualTo(CpSolverStatus.OPTIMAL);
+        // every slot has its headcount, two on DAY
+        assertThat(staffed).containsExactlyElementsOf(
+                IntStream.range(0, layout.slots()).mapToObj(slot -> (long) layout.headcount(slot)).toList());
+        assertThat(staffed.get(layout.slot(0, catalog.indexOf("DAY")))).isEqualTo(2);
+    }
+
+    @Test
+    public void tableCellsFollowTheCalendar() {
+        var table = new Table(INTERNS, week);
+
+        assertThat(table.getLayout().slots()).isEqualTo(5 + 2 * 2);
+        assertThat(table.getNumberOfShifts()).isEqualTo(9);
+        assertThat(table.get(0, 0, Table.Shift.WEEKEND.ordinal())).isNull();
+        assertThat(table.getDay(5)).hasSize(2 * INTERNS.size());
+    }
+}
@@ -0,0 +1,128 @@
+package org.wiles.scheduler;
+
+import com.google.ortools.Loader;
+import org.junit.jupiter.api.Test;
+import org.wiles.scheduler.SwapEngine.Candidate;
+import org.wiles.scheduler.SwapEngine.Reason;
+import org.wiles.scheduler.Table.Shift;
+
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class SwapEngineTest {
+
+    static {
+        Loader.loadNativeLibraries();
+    }
+
+    private static final List<String> INTERNS = TestTables.interns(8);
+
+    private Table table() {
+        Table table = TestTables.table(INTERNS.size(), 31);
+        table.addLeaveDays(0, 15, 16, 17);
+        table.addRestRule(Shift.WEEKEND, 2);
+        return table;
+    }
+
+    @Test
+    public void everyCandidateKeepsTheRosterValid() {
+        Table table = table();
+        Roster roster = new GreedyRosterBuilder(table).build(1, 20).roster();
+        RosterValidator validator = new RosterValidator(table);
+        assertThat(validator.isValid(roster)).isTrue();
+
+        int weekDay = Shift.WEEK_DAY.ordinal();
+        for (int day : new int[]{2, 15, 23}) {
+            SwapEngine engine = new SwapEngine(table, roster);
+            int from = roster.assignee(day, weekDay);
+            List<Candidate> candidates = engine.candidates(day, weekDay);
+
+            assertThat(candidates).isSortedAccordingTo(Comparator.comparingInt(Candidate::hourSpread)
+                    .thenComparingInt(Candidate::balance).thenComparingInt(Candidate::intern));
+            for (int to = 0; to < INTERNS.size(); to++) {
+                int intern = to;
+                SwapEngine.Verdict verdict = engine.checkGiveaway(day, weekDay, from, to);
+                assertThat(candidates.stream().anyMatch(candidate -> candidate.intern() == intern)).isEqualTo(verdict.isFeasible());
+                if (verdict.isFeasible()) {
+                    SwapEngine swapped = new SwapEngine(table, roster);
+                    swapped.giveaway(day, weekDay, from, to);
+                    RosterValidator.Result result = validator.validate(swapped.roster());
+                    assertThat(result.violations()).isEmpty();
+                    assertThat(result.hourSpread()).isEqualTo(verdict.hourSpread()).isEqualTo(swapped.hourSpread());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void explainsWhyASwapCannotGoAhead() {
+        Table table = table();
+        Roster roster = new GreedyRosterBuilder(table).build(1, 20).roster();
+        SwapEngine engine = new SwapEngine(table, roster);
+        int weekDay = Shift.WEEK_DAY.ordinal();
+
+        // Adams is on leave on day 16
+        int from = roster.assignee(16, weekDay);
+        assertThat(engine.checkGiveaway(16, weekDay, from, 0).reasons()).contains(Reason.UNAVAILABLE);
+        // whoever works day 9 cannot also take day 10
+        int nextDay = roster.assignee(9, weekDay);
+        assertThat(engine.checkGiveaway(10, weekDay, roster.assignee(10, weekDay), nextDay).reasons()).contains(Reason.REST);
+        // a trade of a shift with oneself, or of a shift someone does not work, is no trade
+        assertThat(engine.checkTrade(9, weekDay, nextDay, 9, weekDay, nextDay).reasons()).containsExactly(Reason.NOT_ASSIGNED);
+    }
+
+    @Test
+    public void outOfRangeSwapsAreNotAssigned() {
+        Table table = table();
+        Roster roster = new GreedyRosterBuilder(table).build(1, 20).roster();
+        SwapEngine engine = new SwapEngine(table, roster);
+        int weekDay = Shift.WEEK_DAY.ordinal();
+        int from = roster.assignee(2, weekDay);
+
+        // nobody works the week day shift on Saturday the 6th, so -1 gives away nothing
+        assertThat(roster.assignee(5, weekDay)).isNegative();
+        assertThat(engine.checkGiveaway(5, weekDay, -1, 1).reasons()).containsExactly(Reason.NOT_ASSIGNED);
+        assertThat(engine.checkGiveaway(2, weekDay, from, -1).reasons()).containsExactly(Reason.NOT_ASSIGNED);
+        assertThat(engine.checkGiveaway(2, weekDay, from, INTERNS.size()).reasons()).containsExactly(Reason.NOT_ASSIGNED);
+        assertThat(engine.checkGiveaway(-1, weekDay, from, 1).reasons()).containsExactly(Reason.NOT_ASSIGNED);
+        assertThat(engine.checkGiveaway(31, weekDay, from, 1).reasons()).containsExactly(Reason.NOT_ASSIGNED);
+        assertThat(engine.checkGiveaway(2, Shift.values().length, from, 1).reasons()).containsExactly(Reason.NOT_ASSIGNED);
+        assertThat(engine.checkTrade(2, weekDay, from, 40, weekDay, 1).reasons()).containsExactly(Reason.NOT_ASSIGNED);
+        assertThat(engine.candidates(-1, weekDay)).isEmpty();
+        assertThat(engine.candidates(2, -1)).isEmpty();
+        assertThatThrownBy(() -> engine.giveaway(5, weekDay, -1, 1)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(engine.roster()).isEqualTo(roster);
+    }
+
+    @Test
+    public void tradesLeaveTheCountsAlone() {
+        Table table = table();
+        Roster roster = new GreedyRosterBuilder(table).build(1, 20).roster();
+        SwapEngine engine = new SwapEngine(table, roster);
+        RosterValidator validator = new RosterValidator(table);
+        int weekDay = Shift.WEEK_DAY.ordinal();
+
+        // find two week days far apart whose interns can swap
+        for (int a = 0; a < 31; a++) {
+            for (int b = a + 4; b < 31; b++) {
+                if (!table.runs(a, weekDay) || !table.runs(b, weekDay)) {
+                    continue;
+                }
+                int internA = roster.assignee(a, weekDay);
+                int internB = roster.assignee(b, weekDay);
+                if (internA != internB && engine.checkTrade(a, weekDay, internA, b, weekDay, internB).isFeasible()) {
+                    engine.trade(a, weekDay, internA, b, weekDay, internB);
+                    Roster traded = engine.roster();
+                    assertThat(traded.assignee(a, weekDay)).isEqualTo(internB);
+                    assertThat(traded.shifts(internA)).isEqualTo(roster.shifts(internA));
+                    assertThat(validator.validate(traded).violations()).isEmpty();
+                    return;
+                }
+            }
+        }
+        throw new AssertionError("no trade found");
+    }
+}
@@ -3,9 +3,11 @@ package org.wiles.scheduler;
 import static org.assertj.core.api.Assertions.*;
 
 import com.google.ortools.Loader;
+import com.google.ortools.sat.CpSolverStatus;
 import net.datafaker.Faker;
 import org.junit.jupiter.api.Test;
 
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.function.Function;
 import java.util.function.IntPredicate;
@@ -107,5 +109,55 @@ public class TableTest {
 
     }
 
+    @Test
+    public void CellViewsAgree() {
+        IntPredicate isWeekEndOfPublicHoliday = day -> day % 7 > 4;
+        Table table = new Table(Stream.generate(() ->
+                faker.name().lastName()
+        ).limit(3).collect(Collectors.toList()), 10, isWeekEndOfPublicHoliday);
+
+        assertThat(table.getNumberOfShifts()).isEqualTo(8 + 2 * 2);
+        assertThat(table.getInterns(1)).hasSize(table.getNumberOfShifts());
+        assertThat(table.getDay(5)).hasSize(3 * 2);
+        assertThat(table.get(1, 5, Table.Shift.WEEK_DAY.ordinal())).isNull();
+
+        for (int d : table.getDayRange()) {
+            assertThat(table.getInterns(1, d)).containsExactlyElementsOf(table.get(1, d, null));
+            assertThat(table.getDay(d)).containsExactlyInAnyOrderElementsOf(table.get(null, d, null));
+            for (Table.Shift shift : Table.Shift.values()) {
+                assertThat(table.getDay(d, shift)).containsExactlyInAnyOrderElementsOf(table.get(null, d, shift));
+            }
+        }
+    }
 
+    @Test
+    public void UnavailableCellsAreNeverCreated() {
+        IntPredicate isWeekEndOfPublicHoliday = day -> day % 7 > 4;
+        Table table = new Table(Stream.generate(() ->
+                faker.name().lastName()
+        ).limit(6).collect(Collectors.toList()), 14, isWeekEndOfPublicHoliday);
+        table.addLeaveDays(0, 2, 3);
+        table.addBlock(1, Table.Unavailability.EXAM, 5, 6);
+        table.addBlock(2, Table.Unavailability.ROTATION, 10, 20);
+
+        assertThat(table.isAvailable(2, 13)).isFalse();
+        assertThat(table.getInterns(0, 2)).isEmpty();
+        // 2 leave week days, 2 exam weekend days of 2 shifts, rotation over 2 week days and a weekend
+        assertThat(table.getModel().model().getVariablesCount()).isEqualTo(6 * table.getNumberOfShifts() - 2 - 2 * 2 - (2 + 2 * 2));
+        assertThat(table.get(1, 5, Table.Shift.WEEKEND.ordinal())).isNull();
+        assertThat(table.getDay(5)).hasSize(5 * 2);
+        assertThat(table.getInterns(2)).hasSize(table.getNumberOfShifts() - 6);
+
+        for (int d : table.getDayRange()) {
+            for (int i = 0; i < 6; i++) {
+                assertThat(table.getInterns(i, d)).containsExactlyElementsOf(table.get(i, d, null));
+            }
+        }
+
+        var cpSolver = new SchedulerSolver(table).solve();
+        assertThat(cpSolver.solve(table.getModel())).isEqualTo(CpSolverStatus.OPTIMAL);
+        Roster roster = Roster.of(table, cpSolver);
+        assertThat(roster.isOn(1, 6, Table.Shift.WEEKEND.ordinal())).isFalse();
+        assertThat(Arrays.stream(table.allShifts).noneMatch(s -> roster.isOn(0, 3, s))).isTrue();
+    }
 }
@@ -0,0 +1,47 @@
+package org.wiles.scheduler;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * The interns and month the tests roster, like the benchmarks' {@code RosterFixture}: day 0 is Monday 1 July 2024,
+ * which has no public holidays, and the interns have fixed names so every run builds the same model. June is there for
+ * the tests that need a month before it.
+ */
+final class TestTables {
+
+    static final LocalDate JUNE = LocalDate.of(2024, 6, 1);
+    static final LocalDate JULY = LocalDate.of(2024, 7, 1);
+
+    private static final List<String> NAMES = List.of("Adams", "Baker", "Clark", "Davis", "Evans", "Fox", "Green",
+            "Hill", "Irving", "Jones");
+
+    private TestTables() {
+    }
+
+    /**
+     * The named interns first, then {@code intern-10}, {@code intern-11} and so on.
+     */
+    static List<String> interns(int count) {
+        if (count <= NAMES.size()) {
+            return NAMES.subList(0, count);
+        }
+        return IntStream.range(0, count).mapToObj(i -> i < NAMES.size() ? NAMES.get(i) : "intern-" + i).toList();
+    }
+
+    static RosterCalendar june(int days) {
+        return RosterCalendar.of(JUNE, days);
+    }
+
+    static RosterCalendar july(int days) {
+        return RosterCalendar.of(JULY, days);
+    }
+
+    /**
+     * A table of the first {@code interns} interns over the first {@code days} days of July, with nothing else added.
+     */
+    static Table table(int interns, int days) {
+        return new Table(interns(interns), july(days));
+    }
+}